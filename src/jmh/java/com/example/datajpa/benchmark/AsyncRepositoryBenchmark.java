@@ -0,0 +1,117 @@
+package com.example.datajpa.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.repository.MemberRepository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+/**
+ * 요청을 처리하는 스레드 수(= 톰캣 스레드)를 4개로 고정하고, 요청 하나가 회원 페이지 8개(+ count)를 조회할 때의 처리량 비교.
+ * - blocking : 요청 스레드가 8번 차례대로 JDBC를 기다린다. DB 동시 실행 수가 요청 스레드 수를 넘지 못한다.
+ * - async    : 8개를 repositoryExecutor에 한번에 맡기고 결과만 모은다. DB 동시 실행 수는 max-concurrency까지 늘어난다.
+ * 임베디드 H2는 네트워크 왕복이 없어서 JDBC 대기 시간이 0에 가깝다. dbLatencyMillis로 SQL마다 왕복 지연을 흉내낸다.
+ * (지연이 0이면 순수 CPU 작업이라 코어 수 이상으로는 빨라지지 않고 스레드 전환 비용만 더해진다)
+ * JDK 21 이상에서 돌리면 repositoryExecutor가 가상 스레드로 바뀐다. (datajpa.async.virtual-threads)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AsyncRepositoryBenchmark {
+    private static final int QUERIES_PER_REQUEST = 8;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({ "0", "2" })
+    public int dbLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Collections.singletonMap("benchmark.db-latency-millis", dbLatencyMillis),
+                                         SimulatedLatencyConfig.class);
+        BenchmarkContext.seed(context);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Page<Member>> blocking() {
+        List<Page<Member>> pages = new ArrayList<>(QUERIES_PER_REQUEST);
+        for (int i = 0; i < QUERIES_PER_REQUEST; i++) {
+            pages.add(memberRepository.findAll(randomPage())); // SimpleJpaRepository가 읽기 전용 트랜잭션을 연다
+        }
+        return pages;
+    }
+
+    @Benchmark
+    public List<Page<Member>> async() {
+        List<CompletableFuture<Page<Member>>> futures = new ArrayList<>(QUERIES_PER_REQUEST);
+        for (int i = 0; i < QUERIES_PER_REQUEST; i++) {
+            futures.add(memberRepository.findAllAsync(randomPage()));
+        }
+        List<Page<Member>> pages = new ArrayList<>(QUERIES_PER_REQUEST);
+        for (CompletableFuture<Page<Member>> future : futures) {
+            pages.add(future.join());
+        }
+        return pages;
+    }
+
+    private static PageRequest randomPage() {
+        return PageRequest.of(ThreadLocalRandom.current().nextInt(10), PAGE_SIZE); // 앞쪽 페이지 (화면에서 주로 보는 범위)
+    }
+
+    // @Configuration을 붙이면 DataJpaApplication의 컴포넌트 스캔에 걸려서 다른 벤치마크에도 등록된다. sources()로만 등록한다.
+    static class SimulatedLatencyConfig {
+        // p6spy를 거쳐 실행되는 모든 SQL 앞에서 잠깐 멈춘다 (DB 서버까지 왕복하는 시간)
+        @Bean
+        public JdbcEventListener simulatedLatencyListener(@Value("${benchmark.db-latency-millis:0}") long latencyMillis) {
+            return new SimpleJdbcEventListener() {
+                @Override
+                public void onBeforeAnyExecute(StatementInformation statementInformation) {
+                    if (latencyMillis > 0) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+                    }
+                }
+            };
+        }
+    }
+}
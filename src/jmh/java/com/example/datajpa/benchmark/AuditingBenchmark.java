@@ -0,0 +1,81 @@
+package com.example.datajpa.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.repository.MemberRepository;
+
+/**
+ * 배치 insert(saveAllBatched) 1000건에서 감사 컬럼을 채우는 방식별 비용.
+ * - legacy : 엔티티마다 UUID.randomUUID() + LocalDateTime.now() (기존 동작)
+ * - cached : 트랜잭션당 등록자 한번 + 10ms 단위 시계 (기본 설정)
+ * - flush  : cached + 엔티티 리스너 대신 flush 때 하이버네이트 이벤트로 채움
+ * 실행 : ./gradlew jmh -Pjmh.includes=AuditingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditingBenchmark {
+    private static final int BATCH = 1000;
+
+    @Param({ "legacy", "cached", "flush" })
+    public String auditing;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("datajpa.auditing.mode", "flush".equals(auditing) ? "flush" : "listener");
+        properties.put("datajpa.auditing.cache-auditor", !"legacy".equals(auditing));
+        properties.put("datajpa.auditing.clock-precision", "legacy".equals(auditing) ? "0" : "10ms");
+        context = BenchmarkContext.start(properties);
+        memberRepository = context.getBean(MemberRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteMembers() {
+        context.getBean(JdbcTemplate.class).update("delete from member");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int batchInsert() {
+        List<Member> members = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            members.add(new Member("audit" + i, i % 100));
+        }
+        return transactionTemplate.execute(status -> memberRepository.saveAllBatched(members, 100));
+    }
+}
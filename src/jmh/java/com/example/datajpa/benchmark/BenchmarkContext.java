@@ -0,0 +1,70 @@
+package com.example.datajpa.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.DataJpaApplication;
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.entity.Team;
+import com.example.datajpa.repository.MemberRepository;
+import com.example.datajpa.repository.TeamRepository;
+
+/**
+ * @implNote : 벤치마크용 스프링 컨텍스트. 웹 서버 없이 JPA 부분만 띄우고, 임베디드 H2(메모리)에 데이터를 채운다.
+ * SQL 로그, p6spy 로그, N+1 감지처럼 측정값을 흐리는 것들은 끈다.
+ */
+public final class BenchmarkContext {
+    public static final int TEAMS = 10;
+    public static final int MEMBERS = 10_000;
+    public static final int USERNAMES = 1000; // username 하나당 MEMBERS / USERNAMES 명
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(Map<String, Object> properties, Class<?>... extraSources) {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("spring.datasource.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        arguments.put("spring.main.banner-mode", "off");
+        arguments.put("logging.level.root", "warn");
+        arguments.put("logging.level.org.hibernate.SQL", "warn");
+        arguments.put("decorator.datasource.p6spy.enable-logging", "false");
+        arguments.put("datajpa.n-plus-one.enabled", "false");
+        arguments.putAll(properties);
+        // properties()로 넘기면 application.yml 보다 우선순위가 낮아서 커맨드라인 인자로 넘긴다
+        String[] args = arguments.entrySet().stream()
+                                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                                .toArray(String[]::new);
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .sources(extraSources)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+    public static void seed(ConfigurableApplicationContext context) {
+        seed(context, MEMBERS);
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int memberCount) {
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < TEAMS; i++) {
+                teams.add(teamRepository.save(new Team("team" + i)));
+            }
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < memberCount; i++) {
+                members.add(new Member("member" + (i % USERNAMES), i % 100, teams.get(i % TEAMS)));
+            }
+            memberRepository.saveAllBatched(members, 500);
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.datajpa.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.repository.MemberRepository;
+import com.example.datajpa.service.MemberService;
+
+/**
+ * 여러 스레드가 같은 회원 몇 명의 나이를 동시에 고칠 때 비관적 락(for update) vs 낙관적 락(@Version + 재시도).
+ * SampleTime 결과의 p0.99, p0.999 로 꼬리 지연을, Throughput으로 처리량을 비교한다.
+ * hotMembers가 작을수록 충돌이 많다. (1이면 모든 스레드가 한 row를 두고 싸운다)
+ * 실행 : ./gradlew jmh -Pjmh.includes=ContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ContentionBenchmark {
+    @Param({ "pessimistic", "optimistic" })
+    public String lockMode;
+
+    @Param({ "1", "16" })
+    public int hotMembers;
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private final List<Long> memberIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // H2 기본 락 대기(1초)를 넘기면 비관적 락 쪽이 타임아웃으로 실패하니 넉넉하게
+        Map<String, Object> properties = Collections.singletonMap("spring.datasource.url",
+                                                                  "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        context = BenchmarkContext.start(properties);
+        memberService = context.getBean(MemberService.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            for (int i = 0; i < hotMembers; i++) {
+                memberIds.add(memberRepository.save(new Member("hot" + i, 0)).getId());
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int addAge(Outcomes outcomes) {
+        Long memberId = memberIds.get(ThreadLocalRandom.current().nextInt(memberIds.size()));
+        try {
+            int age = "optimistic".equals(lockMode)
+                      ? memberService.addAgeOptimistic(memberId, 1)
+                      : memberService.addAgePessimistic(memberId, 1);
+            outcomes.succeeded++;
+            return age;
+        } catch (ConcurrencyFailureException e) {
+            outcomes.failed++; // 재시도를 다 써버렸거나(낙관적) 락 대기 타임아웃(비관적)
+            return -1;
+        }
+    }
+
+    // 처리량 결과에 성공/실패 건수가 같이 나온다 (Throughput 모드)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long succeeded;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            succeeded = 0;
+            failed = 0;
+        }
+    }
+}
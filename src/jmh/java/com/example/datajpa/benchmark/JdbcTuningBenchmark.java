@@ -0,0 +1,73 @@
+package com.example.datajpa.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.repository.MemberRepository;
+
+/**
+ * 기본 설정 vs prod 프로필(application-prod.yml)에서 username 조회 한번에 드는 시간 비교.
+ * 회원 수를 줄여서(username당 1명) 테이블 스캔보다 쿼리 한번의 고정 비용(파싱, statement 준비, 매핑)이 드러나게 했다.
+ * 두 경우 모두 SQL 로그는 꺼서(BenchmarkContext) statement 캐시, fetch 크기, plan 캐시 같은 튜닝 효과만 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcTuningBenchmark {
+    @Param({ "default", "prod" })
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Collections.singletonMap("spring.profiles.active", profile));
+        BenchmarkContext.seed(context, BenchmarkContext.USERNAMES); // username당 1명 : 테이블 스캔보다 statement 준비/실행 비용이 드러나게
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> findByUsernameAndAgeGreaterThan() {
+        return readOnly.execute(status -> memberRepository.findByUsernameAndAgeGreaterThan(username(), 10));
+    }
+
+    @Benchmark
+    public List<Member> findUser() {
+        return readOnly.execute(status -> memberRepository.findUser(username(), 10));
+    }
+
+    private static String username() {
+        return "member" + ThreadLocalRandom.current().nextInt(BenchmarkContext.USERNAMES);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.datajpa.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.dto.NestedClosedProjectionsDto;
+import com.example.datajpa.dto.UsernameAgeDto;
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.repository.MemberProjection;
+import com.example.datajpa.repository.MemberRepository;
+import com.example.datajpa.repository.MemberSpec;
+import com.example.datajpa.repository.NestedClosedProjections;
+import com.example.datajpa.repository.UsernameOnly;
+
+/**
+ * MemberRepository의 같은 결과를 내는 여러 쿼리 방식 비교.
+ * 모든 벤치마크는 읽기 전용 트랜잭션 하나(= 요청 하나)에서 실행되기 때문에 매번 영속성 컨텍스트가 비어있는 상태에서 측정된다.
+ * 실행 : ./gradlew jmh   (특정 벤치마크만 : ./gradlew jmh -Pjmh.includes=MemberQueryBenchmark.dto)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberQueryBenchmark {
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 2차 캐시/쿼리 캐시를 끄고 DB 왕복 + 매핑 비용만 비교한다
+        context = BenchmarkContext.start(Map.of("spring.jpa.properties.hibernate.cache.use_second_level_cache", "false",
+                                                "spring.jpa.properties.hibernate.cache.use_query_cache", "false"));
+        BenchmarkContext.seed(context);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 파생 쿼리 (메서드 이름으로 JPQL 생성)
+    @Benchmark
+    public List<Member> derivedQuery() {
+        return inTx(() -> memberRepository.findByUsernameAndAgeGreaterThan(username(), 10));
+    }
+
+    // @Query JPQL
+    @Benchmark
+    public List<Member> jpqlQuery() {
+        return inTx(() -> memberRepository.findUser(username(), 10));
+    }
+
+    // new 생성자 DTO 조회 (팀 조인 포함)
+    @Benchmark
+    public List<MemberDto> dtoProjection() {
+        return inTx(() -> memberRepository.findMemberDtoByUsername(username()));
+    }
+
+    // 인터페이스 프로젝션 (open projection : 엔티티를 읽고 프록시 + SpEL)
+    @Benchmark
+    public List<UsernameOnly> interfaceProjection() {
+        return inTx(() -> memberRepository.findProjectionsByUsername(username()));
+    }
+
+    // 위 Open Projection과 같은 결과를 클래스로 (username, age 두 컬럼만)
+    @Benchmark
+    public List<UsernameAgeDto> usernameAgeDto() {
+        return inTx(() -> memberRepository.findUsernameAgeByUsername(username()));
+    }
+
+    // 중첩 인터페이스 프로젝션 (team 전체 컬럼 + 프록시)
+    @Benchmark
+    public List<NestedClosedProjections> nestedInterfaceProjection() {
+        return inTx(() -> memberRepository.findGenericProjectionsByUsername(username(), NestedClosedProjections.class));
+    }
+
+    // 중첩 프로젝션을 클래스로 (m.username, t.name 만)
+    @Benchmark
+    public List<NestedClosedProjectionsDto> nestedClassProjection() {
+        return inTx(() -> memberRepository.findNestedProjectionsByUsername(username()));
+    }
+
+    // 네이티브 쿼리 + 인터페이스 프로젝션 (페이지 + count)
+    @Benchmark
+    public List<MemberProjection> nativeProjection() {
+        return inTx(() -> memberRepository.findByNativeProjection(PageRequest.of(0, 10)).getContent());
+    }
+
+    // Specification (Criteria)
+    @Benchmark
+    public List<Member> specification() {
+        Specification<Member> spec = MemberSpec.userName(username()).and(MemberSpec.teamName("team1"));
+        return inTx(() -> memberRepository.findAll(spec));
+    }
+
+    // Query By Example
+    @Benchmark
+    public List<Member> queryByExample() {
+        Example<Member> example = Example.of(new Member(username()), ExampleMatcher.matching().withIgnorePaths("age"));
+        return inTx(() -> memberRepository.findAll(example));
+    }
+
+    // 엔티티 그래프 (팀까지 fetch join)
+    @Benchmark
+    public List<Member> entityGraph() {
+        return inTx(() -> memberRepository.findEntityGraphByUsername(username()));
+    }
+
+    private <T> T inTx(Supplier<T> query) {
+        return readOnly.execute(status -> query.get());
+    }
+
+    private static String username() {
+        return "member" + ThreadLocalRandom.current().nextInt(BenchmarkContext.USERNAMES);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.datajpa.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.entity.Team;
+import com.example.datajpa.repository.MemberRepository;
+import com.example.datajpa.repository.MemberSpec;
+
+/**
+ * 같은 모양의 Example 검색을 반복할 때 호출 한번의 비용 비교. findAll(Example)은 매번 Criteria를 새로 만들고,
+ * findAllByExampleCached는 캐싱한 JPQL에 값만 바인딩한다. 결과가 한두 건인 인덱스 조회라 DB 시간보다 쿼리 준비 비용이 잘 드러난다.
+ * 실행 : ./gradlew jmh -Pjmh.includes=QueryByExampleBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryByExampleBenchmark {
+    private static final ExampleMatcher IGNORE_AGE = ExampleMatcher.matching().withIgnorePaths("age");
+    private static final Sort SORT = Sort.by("id");
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Collections.singletonMap("spring.jpa.properties.hibernate.cache.use_query_cache", "false"));
+        BenchmarkContext.seed(context, BenchmarkContext.USERNAMES);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> example() {
+        Example<Member> example = Example.of(new Member(username()), IGNORE_AGE);
+        return inTx(() -> memberRepository.findAll(example, SORT));
+    }
+
+    @Benchmark
+    public List<Member> exampleCached() {
+        Example<Member> example = Example.of(new Member(username()), IGNORE_AGE);
+        return inTx(() -> memberRepository.findAllByExampleCached(example, SORT));
+    }
+
+    // team inner join + username 조건
+    @Benchmark
+    public List<Member> exampleWithJoin() {
+        Example<Member> example = Example.of(memberOfTeam(), IGNORE_AGE);
+        return inTx(() -> memberRepository.findAll(example, SORT));
+    }
+
+    @Benchmark
+    public List<Member> exampleWithJoinCached() {
+        Example<Member> example = Example.of(memberOfTeam(), IGNORE_AGE);
+        return inTx(() -> memberRepository.findAllByExampleCached(example, SORT));
+    }
+
+    // 같은 조건을 Specification으로 (literal_handling_mode=bind 라서 값이 달라도 같은 JPQL -> 플랜 캐시 재사용)
+    @Benchmark
+    public List<Member> specification() {
+        Specification<Member> spec = MemberSpec.userName(username()).and(MemberSpec.teamName("team1"));
+        return inTx(() -> memberRepository.findAll(spec, SORT));
+    }
+
+    private <T> T inTx(Supplier<T> query) {
+        return readOnly.execute(status -> query.get());
+    }
+
+    private static Member memberOfTeam() {
+        Member member = new Member(username());
+        member.setTeam(new Team("team1"));
+        return member;
+    }
+
+    private static String username() {
+        return "member" + ThreadLocalRandom.current().nextInt(BenchmarkContext.USERNAMES);
+    }
+}
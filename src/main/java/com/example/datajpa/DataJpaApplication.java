@@ -5,28 +5,38 @@ import java.util.UUID;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import com.example.datajpa.config.AuditingConfig;
+import com.example.datajpa.config.AuditingProperties;
+import com.example.datajpa.config.TransactionScopedAuditorAware;
+import com.example.datajpa.monitoring.StartupReport;
 import com.example.datajpa.repository.MemberRepository;
 
 import lombok.RequiredArgsConstructor;
 
 //@EnableJpaRepositories(basePackages = "com.example.datajpa.repository") // 원래는 이렇게 해줘야하는데 SpringBoot는 이런 세팅 안해줘도 됩니다.
-@EnableJpaAuditing // Data-Jpa용 Auditing
+@EnableJpaAuditing(dateTimeProviderRef = AuditingConfig.DATE_TIME_PROVIDER) // Data-Jpa용 Auditing, 시각은 AuditingConfig의 CoarseClock
 @SpringBootApplication
+@ConfigurationPropertiesScan // datajpa.* 설정 클래스들(@ConfigurationProperties)을 등록
 @RequiredArgsConstructor
 public class DataJpaApplication {
     public static void main(String[] args) {
-        SpringApplication.run(DataJpaApplication.class, args);
+        SpringApplication application = new SpringApplication(DataJpaApplication.class);
+        StartupReport.install(application); // 기동 단계별 소요 시간 로그 (datajpa.startup.*)
+        application.run(args);
     }
 
     @Bean
-    public AuditorAware<String> auditorProvider() { // 등록되거나 수정될 때마다 결과물을 꺼내서 createBy, lastModifiedBy
+    public AuditorAware<String> auditorProvider(AuditingProperties auditingProperties) { // 등록되거나 수정될 때마다 결과물을 꺼내서 createBy, lastModifiedBy
         // 에 값을 채워줍니다.
         // 여기서 SpringSecurityContext에서 세션정보를 가져와서 꺼내거나 해서, 유저 아이디를 넣어주면 됩니다. 지금은 예시로 UUID 랜덤 넣음
-        return () -> Optional.of(UUID.randomUUID().toString());
+        AuditorAware<String> auditorAware = () -> Optional.of(UUID.randomUUID().toString());
+        // UUID.randomUUID()는 SecureRandom이라 비싸다. 트랜잭션마다 한번만 만든다 (datajpa.auditing.cache-auditor)
+        return auditingProperties.isCacheAuditor() ? new TransactionScopedAuditorAware<>(auditorAware) : auditorAware;
     }
 }
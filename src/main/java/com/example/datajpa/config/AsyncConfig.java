@@ -0,0 +1,104 @@
+package com.example.datajpa.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : 리포지토리 비동기 메서드(@Async(REPOSITORY_EXECUTOR))를 실행하는 전용 Executor.
+ * 서블릿 스레드는 JDBC 응답을 기다리지 않고 바로 반납되고, 실제 조회는 이 Executor에서 자기 트랜잭션을 열고 실행된다.
+ * JDK 21 이상이면 가상 스레드(작업마다 하나)를 쓰고, 그 아래 버전이면 고정 크기 스레드 풀을 쓴다.
+ * 어느 쪽이든 동시에 실행되는 작업은 max-concurrency 개로 제한한다. (커넥션 풀보다 많이 돌려도 커넥션 대기만 길어진다)
+ */
+@Slf4j
+@EnableAsync
+@Configuration
+@RequiredArgsConstructor
+public class AsyncConfig {
+    public static final String REPOSITORY_EXECUTOR = "repositoryExecutor";
+
+    private final AsyncProperties properties;
+
+    /**
+     * Executor 빈을 하나라도 등록하면 스프링 부트가 기본 applicationTaskExecutor를 만들지 않는다.
+     * MVC 비동기 요청(StreamingResponseBody 등)과 이름 없는 @Async는 계속 부트 기본 설정(spring.task.execution.*)을 쓰도록 직접 등록해준다.
+     */
+    @Lazy
+    @Primary
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = REPOSITORY_EXECUTOR)
+    public Executor repositoryExecutor() {
+        ExecutorService virtualThreads = properties.isVirtualThreads() ? newVirtualThreadPerTaskExecutor() : null;
+        if (virtualThreads != null) {
+            log.info("repositoryExecutor : 가상 스레드 (max-concurrency={})", properties.getMaxConcurrency());
+            return new BoundedExecutor(virtualThreads, properties.getMaxConcurrency());
+        }
+        log.info("repositoryExecutor : 스레드 풀 (max-concurrency={}, queue-capacity={})",
+                 properties.getMaxConcurrency(), properties.getQueueCapacity());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMaxConcurrency());
+        executor.setMaxPoolSize(properties.getMaxConcurrency());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("repository-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // 소스는 JDK 11로 컴파일되기 때문에 JDK 21의 Executors.newVirtualThreadPerTaskExecutor()는 리플렉션으로 찾는다.
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 가상 스레드는 작업마다 새로 만들어서 개수 제한이 없다. 세마포어로 동시에 실행되는 작업 수만 제한한다.
+     * 대기는 가상 스레드 안에서 하기 때문에(블로킹 비용이 거의 없음) 호출한 스레드는 막히지 않는다.
+     */
+    static class BoundedExecutor implements Executor {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        BoundedExecutor(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            delegate.execute(() -> {
+                permits.acquireUninterruptibly(); // 여기서 예외로 빠지면 task가 실행되지 않아서 CompletableFuture가 영원히 완료되지 않는다
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        public void shutdown() { // 빈 종료 시 호출 (destroyMethod 추론)
+            delegate.shutdown();
+        }
+    }
+}
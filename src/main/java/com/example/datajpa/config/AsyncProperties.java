@@ -0,0 +1,18 @@
+package com.example.datajpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.async")
+public class AsyncProperties {
+    private boolean virtualThreads = true; // JDK 21 이상이면 가상 스레드로 실행 (아니면 아래 스레드 풀)
+    private int maxConcurrency = 10;       // 동시에 DB를 쓰는 작업 수. 커넥션 풀 크기(hikari 기본 10)를 넘겨봐야 커넥션 대기만 늘어난다
+    private int queueCapacity = 1000;      // 스레드 풀일 때 대기열 크기. 넘치면 TaskRejectedException
+    private int specPartitions = 4;        // findAllParallel이 id 범위를 나누는 최대 개수 (max-concurrency 보다 크면 나머지는 줄 서서 기다린다)
+    private int specMinPartitionSize = 1000; // 파티션 하나의 최소 id 구간. 작게 쪼개봐야 스레드 전환 비용만 든다
+    private int lookupChunkSize = 512;     // findDtosByIds/Names가 in 절 하나에 넣는 최대 개수 (2의 거듭제곱이면 패딩으로 늘어나지 않는다)
+}
@@ -0,0 +1,92 @@
+package com.example.datajpa.config;
+
+import java.time.Clock;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+
+import com.example.datajpa.entity.AuditTime;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : 감사(auditing) 컬럼을 채우는 비용 줄이기. (datajpa.auditing.*)
+ * - 시각 : @EnableJpaAuditing(dateTimeProviderRef)와 JpaBaseEntity 콜백(AuditTime)이 모두 CoarseClock을 쓴다.
+ * - 등록자/수정자 : AuditorAware를 TransactionScopedAuditorAware로 감싸서 트랜잭션마다 한번만 구한다. (DataJpaApplication.auditorProvider)
+ * - mode=flush : 엔티티 리스너 대신 flush 할 때 하이버네이트 이벤트로 채운다. (AuditingFlushListener)
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class AuditingConfig {
+    public static final String DATE_TIME_PROVIDER = "auditingDateTimeProvider";
+
+    private final AuditingProperties properties;
+
+    @Bean
+    public Clock auditingClock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    public CoarseClock coarseClock(Clock clock) {
+        return new CoarseClock(clock, properties.getClockPrecision());
+    }
+
+    @Bean(name = DATE_TIME_PROVIDER)
+    public DateTimeProvider auditingDateTimeProvider(CoarseClock coarseClock) {
+        return () -> Optional.of(coarseClock.now());
+    }
+
+    // AuditTime은 static이라 컨텍스트가 닫힐 때 되돌려야 다음 컨텍스트(테스트)가 닫힌 컨텍스트의 시계를 쓰지 않는다
+    @Configuration
+    @RequiredArgsConstructor
+    static class AuditTimeRegistration {
+        private final CoarseClock coarseClock;
+
+        @PostConstruct
+        void register() {
+            AuditTime.use(coarseClock::now);
+        }
+
+        @PreDestroy
+        void unregister() {
+            AuditTime.reset();
+        }
+    }
+
+    @Configuration
+    @RequiredArgsConstructor
+    static class FlushModeRegistration {
+        private final AuditingProperties properties;
+        private final EntityManagerFactory emf;
+        private final CoarseClock coarseClock;
+        private final ObjectProvider<AuditorAware<?>> auditorAware;
+
+        @PostConstruct
+        void register() {
+            if (properties.getMode() != AuditingProperties.Mode.FLUSH) {
+                return;
+            }
+            AuditingFlushListener listener = new AuditingFlushListener(coarseClock, auditorAware.getObject());
+            EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                                                .getServiceRegistry()
+                                                .getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.PRE_INSERT, listener);
+            registry.appendListeners(EventType.PRE_UPDATE, listener);
+            log.info("감사 컬럼 : flush 시점에 채움 (clock-precision={})", properties.getClockPrecision());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.datajpa.config;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.data.domain.AuditorAware;
+
+import com.example.datajpa.entity.BaseEntity;
+import com.example.datajpa.entity.BaseTimeEntity;
+
+/**
+ * @implNote : datajpa.auditing.mode=flush 일 때 BaseTimeEntity/BaseEntity 감사 컬럼을 채운다.
+ * AuditingEntityListener는 엔티티마다 감사 메타데이터를 찾고 프로퍼티 접근기를 만들어서 값을 넣는데,
+ * 여기서는 엔티티 종류별로 컬럼 위치(index)를 한번만 구해두고 flush 때 insert/update 할 값 배열(state)과 엔티티에 바로 넣는다.
+ * pre-update는 하이버네이트가 dirty로 판단한 엔티티에만 호출되기 때문에, 바뀌지 않은 엔티티는 비용이 없다.
+ */
+public class AuditingFlushListener implements PreInsertEventListener, PreUpdateEventListener {
+    private static final long serialVersionUID = 1L;
+    private static final int CREATED_DATE = 0;
+    private static final int LAST_MODIFIED_DATE = 1;
+    private static final int CREATED_BY = 2;
+    private static final int LAST_MODIFIED_BY = 3;
+    private static final int[] NOT_AUDITED = {};
+
+    private final CoarseClock clock;
+    private final AuditorAware<?> auditorAware;
+    private final Map<String, int[]> indexes = new ConcurrentHashMap<>();
+
+    public AuditingFlushListener(CoarseClock clock, AuditorAware<?> auditorAware) {
+        this.clock = clock;
+        this.auditorAware = auditorAware;
+    }
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        int[] index = indexes(event.getPersister());
+        if (index.length == 0) {
+            return false;
+        }
+        LocalDateTime now = clock.now();
+        Object auditor = index[CREATED_BY] >= 0 ? auditorAware.getCurrentAuditor().orElse(null) : null;
+        set(event.getPersister(), event.getEntity(), event.getState(), index[CREATED_DATE], now);
+        set(event.getPersister(), event.getEntity(), event.getState(), index[LAST_MODIFIED_DATE], now);
+        set(event.getPersister(), event.getEntity(), event.getState(), index[CREATED_BY], auditor);
+        set(event.getPersister(), event.getEntity(), event.getState(), index[LAST_MODIFIED_BY], auditor);
+        return false; // false = insert 진행
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        int[] index = indexes(event.getPersister());
+        if (index.length == 0) {
+            return false;
+        }
+        Object auditor = index[LAST_MODIFIED_BY] >= 0 ? auditorAware.getCurrentAuditor().orElse(null) : null;
+        set(event.getPersister(), event.getEntity(), event.getState(), index[LAST_MODIFIED_DATE], clock.now());
+        set(event.getPersister(), event.getEntity(), event.getState(), index[LAST_MODIFIED_BY], auditor);
+        return false;
+    }
+
+    private static void set(EntityPersister persister, Object entity, Object[] state, int index, Object value) {
+        if (index >= 0) {
+            state[index] = value;
+            persister.setPropertyValue(entity, index, value);
+        }
+    }
+
+    private int[] indexes(EntityPersister persister) {
+        return indexes.computeIfAbsent(persister.getEntityName(), name -> {
+            Class<?> type = persister.getMappedClass();
+            if (!BaseTimeEntity.class.isAssignableFrom(type)) {
+                return NOT_AUDITED;
+            }
+            boolean auditedBy = BaseEntity.class.isAssignableFrom(type);
+            return new int[] {
+                    index(persister, "createdDate"),
+                    index(persister, "lastModifiedDate"),
+                    auditedBy ? index(persister, "createdBy") : -1,
+                    auditedBy ? index(persister, "lastModifiedBy") : -1
+            };
+        });
+    }
+
+    private static int index(EntityPersister persister, String property) {
+        Integer index = persister.getEntityMetamodel().getPropertyIndexOrNull(property);
+        return index == null ? -1 : index;
+    }
+}
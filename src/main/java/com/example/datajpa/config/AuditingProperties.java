@@ -0,0 +1,22 @@
+package com.example.datajpa.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.auditing")
+public class AuditingProperties {
+    private Mode mode = Mode.LISTENER;
+    private boolean cacheAuditor = true;                 // 트랜잭션 하나에서는 등록자/수정자를 한번만 구한다
+    private Duration clockPrecision = Duration.ofMillis(10); // 등록일/수정일 시각을 이 간격으로만 새로 읽는다 (0이면 매번)
+
+    public enum Mode {
+        LISTENER, // 스프링 데이터 AuditingEntityListener가 엔티티마다 채운다 (@PrePersist, @PreUpdate)
+        FLUSH     // flush 할 때 하이버네이트 이벤트(pre-insert, pre-update)에서 insert/update 할 값 배열에 바로 채운다
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.datajpa.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * @implNote : LocalDateTime.now()는 호출마다 시계를 읽고 날짜/시각으로 쪼개는 계산을 한다. 엔티티 수천개를 한번에 저장하면 그 비용이 쌓인다.
+ * 마지막으로 읽은 시각을 precision 동안 재사용한다. (감사 컬럼은 10ms 단위면 충분하다)
+ * 시계(Clock)는 주입받기 때문에 테스트에서 고정 시각을 넣을 수 있다.
+ */
+public class CoarseClock {
+    private final Clock clock;
+    private final long precisionNanos;
+    private volatile Tick tick;
+
+    public CoarseClock(Clock clock, Duration precision) {
+        this.clock = clock;
+        this.precisionNanos = precision.toNanos();
+    }
+
+    public LocalDateTime now() {
+        if (precisionNanos <= 0) {
+            return LocalDateTime.now(clock);
+        }
+        long nanos = System.nanoTime();
+        Tick current = tick;
+        if (current == null || nanos - current.nanos >= precisionNanos) {
+            current = new Tick(nanos, LocalDateTime.now(clock));
+            tick = current; // 여러 스레드가 동시에 갱신해도 precision 안쪽 차이라서 락을 걸지 않는다
+        }
+        return current.value;
+    }
+
+    private static class Tick {
+        private final long nanos;
+        private final LocalDateTime value;
+
+        Tick(long nanos, LocalDateTime value) {
+            this.nanos = nanos;
+            this.value = value;
+        }
+    }
+}
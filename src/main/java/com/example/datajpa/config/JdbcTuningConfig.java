@@ -0,0 +1,116 @@
+package com.example.datajpa.config;
+
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : datajpa.jdbc.* 값을 하이버네이트 설정과 HikariCP(드라이버 설정)에 반영하고, 기동이 끝나면 실제 적용된 값을 한번 로그로 남긴다.
+ * prepared statement 캐시는 DB마다 켜는 방법이 달라서 JDBC URL을 보고 고른다.
+ * - H2 : URL에 QUERY_CACHE_SIZE (세션별로 파싱된 쿼리를 재사용, 기본 8)
+ * - MySQL : cachePrepStmts / prepStmtCacheSize / useServerPrepStmts
+ * - PostgreSQL : preparedStatementCacheQueries (서버 prepared statement는 prepareThreshold 이후 자동)
+ */
+@Slf4j
+@Configuration
+public class JdbcTuningConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcTuningHibernatePropertiesCustomizer(JdbcTuningProperties properties) {
+        return hibernateProperties -> {
+            putIfSet(hibernateProperties, AvailableSettings.STATEMENT_FETCH_SIZE, properties.getFetchSize());
+            putIfSet(hibernateProperties, AvailableSettings.STATEMENT_BATCH_SIZE, properties.getBatchSize());
+            putIfSet(hibernateProperties, AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE, properties.getQueryPlanCacheSize());
+        };
+    }
+
+    // BeanPostProcessor는 다른 빈보다 먼저 만들어져서 JdbcTuningProperties 빈을 주입받지 않고 Environment에서 직접 바인딩한다
+    @Bean
+    public static BeanPostProcessor statementCacheDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    Binder.get(environment)
+                          .bind("datajpa.jdbc", JdbcTuningProperties.class)
+                          .map(JdbcTuningProperties::getStatementCacheSize)
+                          .ifBound(cacheSize -> applyStatementCache((HikariDataSource) bean, cacheSize));
+                }
+                return bean;
+            }
+        };
+    }
+
+    static void applyStatementCache(HikariDataSource dataSource, int cacheSize) {
+        String url = dataSource.getJdbcUrl();
+        if (url == null) {
+            return;
+        }
+        if (url.startsWith("jdbc:h2:")) {
+            if (!url.toUpperCase().contains("QUERY_CACHE_SIZE")) {
+                dataSource.setJdbcUrl(url + ";QUERY_CACHE_SIZE=" + cacheSize);
+            }
+        } else if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+            dataSource.addDataSourceProperty("cachePrepStmts", "true");
+            dataSource.addDataSourceProperty("prepStmtCacheSize", String.valueOf(cacheSize));
+            dataSource.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            dataSource.addDataSourceProperty("useServerPrepStmts", "true");
+        } else if (url.startsWith("jdbc:postgresql:")) {
+            dataSource.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(cacheSize));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportEffectiveSettings(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        DataSource dataSource = event.getApplicationContext().getBean(DataSource.class);
+        Map<String, Object> hibernate = event.getApplicationContext().getBean(EntityManagerFactory.class).getProperties();
+
+        StringBuilder report = new StringBuilder("JDBC/JPA 설정 (profiles=")
+                .append(String.join(",", environment.getActiveProfiles())).append(')');
+        HikariDataSource hikari = unwrapHikari(dataSource);
+        if (hikari != null) {
+            report.append("\n  url                  : ").append(hikari.getJdbcUrl())
+                  .append("\n  pool                 : max=").append(hikari.getMaximumPoolSize())
+                  .append(", minIdle=").append(hikari.getMinimumIdle())
+                  .append(", connectionTimeout=").append(hikari.getConnectionTimeout()).append("ms")
+                  .append("\n  driver properties    : ").append(hikari.getDataSourceProperties());
+        }
+        report.append("\n  jdbc fetch/batch     : ").append(hibernate.get(AvailableSettings.STATEMENT_FETCH_SIZE))
+              .append(" / ").append(hibernate.get(AvailableSettings.STATEMENT_BATCH_SIZE))
+              .append("\n  query plan cache     : ").append(hibernate.getOrDefault(AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE, "2048(기본값)"))
+              .append("\n  statistics           : ").append(hibernate.get(AvailableSettings.GENERATE_STATISTICS))
+              .append("\n  p6spy logging        : ").append(environment.getProperty("decorator.datasource.p6spy.enable-logging", "true"))
+              .append("\n  org.hibernate.SQL    : ").append(environment.getProperty("logging.level.org.hibernate.SQL", "info"));
+        log.info(report.toString());
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void putIfSet(Map<String, Object> hibernateProperties, String key, Integer value) {
+        if (value != null) {
+            hibernateProperties.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.datajpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * JDBC/하이버네이트 튜닝 값. 비워두면(null) 드라이버/하이버네이트 기본값을 그대로 쓴다. (application-prod.yml 참고)
+ * 커넥션 풀 크기는 스프링 부트 표준 설정(spring.datasource.hikari.*)으로 한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.jdbc")
+public class JdbcTuningProperties {
+    private Integer statementCacheSize;  // prepared statement 캐시 크기 (H2 QUERY_CACHE_SIZE, MySQL prepStmtCacheSize, PostgreSQL preparedStatementCacheQueries)
+    private Integer fetchSize;           // hibernate.jdbc.fetch_size : 한번에 가져오는 row 수
+    private Integer batchSize;           // hibernate.jdbc.batch_size
+    private Integer queryPlanCacheSize;  // hibernate.query.plan_cache_max_size : JPQL -> SQL 변환 결과 캐시
+}
@@ -0,0 +1,15 @@
+package com.example.datajpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.n-plus-one")
+public class NPlusOneProperties {
+    private boolean enabled = true;      // 요청마다 SQL을 세서 N+1 의심 쿼리를 찾는다
+    private int threshold = 3;           // 같은 SELECT가 이 횟수 이상 나가면 N+1로 본다
+    private boolean failOnDetection = false; // true면 로그 대신 예외를 던진다 (개발/테스트용)
+}
@@ -0,0 +1,16 @@
+package com.example.datajpa.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.paging")
+public class PagingProperties {
+    private Duration countCacheTtl = Duration.ofSeconds(10); // count=cached 일 때 totalCount를 재사용하는 시간
+    private int countCacheMaxEntries = 1000;                 // 조건(캐시 키)이 이것보다 많아지면 캐시를 비운다
+}
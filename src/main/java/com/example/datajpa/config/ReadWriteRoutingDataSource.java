@@ -0,0 +1,89 @@
+package com.example.datajpa.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @implNote : @Transactional(readOnly = true) 트랜잭션은 replica로, 나머지(쓰기, 트랜잭션 없음)는 primary로 보낸다.
+ * replica가 여러개면 돌아가면서(round robin) 쓰고, 지연이 큰 replica는 건너뛴다. (ReplicaLagGuard)
+ *
+ * 트랜잭션 매니저는 readOnly 표시를 하기 전에 커넥션부터 얻기 때문에, 그대로 쓰면 항상 primary로 간다.
+ * 그래서 LazyConnectionDataSourceProxy로 감싸서 첫 SQL을 실행하는 시점에 실제 커넥션을 고르게 한다. (wrap 참고)
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Map<String, DataSource> replicas = new HashMap<>();
+    private final ReplicaLagGuard lagGuard;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, ReplicaLagGuard lagGuard) {
+        this.lagGuard = lagGuard;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            replicas.put(key, replicaDataSources.get(i));
+            targets.put(key, replicaDataSources.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static DataSource wrap(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyRoutingDataSource(routingDataSource);
+    }
+
+    // primary, replica 커넥션 풀을 닫는다
+    public void close() throws IOException {
+        for (Object target : getResolvedDataSources().values()) {
+            if (target instanceof Closeable) { // HikariDataSource
+                ((Closeable) target).close();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicaKeys.isEmpty()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get((start + i) % replicaKeys.size());
+            if (lagGuard.isUsable(key, replicas.get(key))) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    // 빈으로 등록되면 종료할 때 close()가 호출되어(destroyMethod 추론) 안쪽 커넥션 풀까지 닫힌다
+    static class LazyRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+        private final ReadWriteRoutingDataSource routingDataSource;
+
+        LazyRoutingDataSource(ReadWriteRoutingDataSource routingDataSource) {
+            super(routingDataSource);
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Override
+        public void close() throws IOException {
+            routingDataSource.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.datajpa.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : replica가 primary보다 얼마나 뒤처졌는지 lagQuery로 확인한다.
+ * 매 요청마다 확인하면 그 자체가 부하라서 replica별로 마지막 결과를 lagCheckInterval 동안 재사용한다.
+ * 지연 쿼리가 실패하면(연결 불가 등) 그 replica는 뒤처진 것으로 본다.
+ * 지연 확인은 호출한 쪽 트랜잭션 안에서 일어나기 때문에 JdbcTemplate(DataSourceUtils) 대신 커넥션을 직접 얻고 바로 반납한다.
+ * (JdbcTemplate을 쓰면 replica 커넥션이 트랜잭션에 묶여서 트랜잭션이 끝날 때까지 반납되지 않는다)
+ */
+@Slf4j
+public class ReplicaLagGuard {
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final long checkIntervalNanos;
+    private final Map<Object, LagCheck> checks = new ConcurrentHashMap<>();
+
+    public ReplicaLagGuard(String lagQuery, Duration maxLag, Duration checkInterval) {
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.checkIntervalNanos = checkInterval.toNanos();
+    }
+
+    public boolean isUsable(Object key, DataSource replica) {
+        if (lagQuery == null || lagQuery.isEmpty()) {
+            return true;
+        }
+        long now = System.nanoTime();
+        LagCheck check = checks.get(key);
+        if (check == null || now - check.checkedAt > checkIntervalNanos) {
+            check = new LagCheck(now, measureLag(key, replica));
+            checks.put(key, check);
+        }
+        return check.lagSeconds <= maxLagSeconds;
+    }
+
+    private double measureLag(Object key, DataSource replica) {
+        try {
+            double seconds;
+            try (Connection connection = replica.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                seconds = resultSet.next() ? resultSet.getDouble(1) : 0; // null이면 0
+            }
+            if (seconds > maxLagSeconds) {
+                log.warn("replica {} 지연 {}초 (허용 {}초) -> primary로 보냄", key, seconds, maxLagSeconds);
+            }
+            return seconds;
+        } catch (Exception e) {
+            log.warn("replica {} 지연 확인 실패 -> primary로 보냄 : {}", key, e.getMessage());
+            return Double.MAX_VALUE;
+        }
+    }
+
+    private static class LagCheck {
+        private final long checkedAt;
+        private final double lagSeconds;
+
+        LagCheck(long checkedAt, double lagSeconds) {
+            this.checkedAt = checkedAt;
+            this.lagSeconds = lagSeconds;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.datajpa.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : datajpa.routing.enabled=true 일 때만 스프링 부트 기본 DataSource 대신 읽기/쓰기 라우팅 DataSource를 등록한다.
+ * primary는 spring.datasource.*, replica는 datajpa.routing.replicas[*] 로 접속하고,
+ * 커넥션 풀 설정(spring.datasource.hikari.*)과 statement 캐시(datajpa.jdbc.statement-cache-size)는 모든 풀에 똑같이 적용한다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "datajpa.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, RoutingDataSourceProperties properties,
+                                 Environment environment) {
+        DataSource primary = pool("datajpa-primary", dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                                  dataSourceProperties.determinePassword(), environment);
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            RoutingDataSourceProperties.Replica replica = properties.getReplicas().get(i);
+            replicas.add(pool("datajpa-replica-" + i, replica.getUrl(), replica.getUsername(), replica.getPassword(), environment));
+        }
+        log.info("읽기/쓰기 라우팅 : primary 1개, replica {}개 (최대 지연 {})", replicas.size(), properties.getMaxReplicaLag());
+        ReplicaLagGuard lagGuard = new ReplicaLagGuard(properties.getLagQuery(), properties.getMaxReplicaLag(),
+                                                       properties.getLagCheckInterval());
+        return ReadWriteRoutingDataSource.wrap(new ReadWriteRoutingDataSource(primary, replicas, lagGuard));
+    }
+
+    private static HikariDataSource pool(String poolName, String url, String username, String password, Environment environment) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                                                       .url(url).username(username).password(password)
+                                                       .build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        binder.bind("datajpa.jdbc", JdbcTuningProperties.class)
+              .map(JdbcTuningProperties::getStatementCacheSize)
+              .ifBound(cacheSize -> JdbcTuningConfig.applyStatementCache(dataSource, cacheSize));
+        dataSource.setPoolName(poolName);
+        return dataSource;
+    }
+}
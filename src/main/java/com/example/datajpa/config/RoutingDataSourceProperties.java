@@ -0,0 +1,31 @@
+package com.example.datajpa.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.routing")
+public class RoutingDataSourceProperties {
+    private boolean enabled = false;                      // true면 읽기 전용 트랜잭션을 replica로 보낸다
+    private List<Replica> replicas = new ArrayList<>();
+    private Duration maxReplicaLag = Duration.ofSeconds(5); // 이보다 뒤처진 replica는 건너뛴다 (전부 뒤처지면 primary)
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+    // replica에서 실행해서 지연 시간(초)을 돌려주는 쿼리. 비워두면 지연을 확인하지 않는다.
+    // 예) PostgreSQL : select extract(epoch from now() - pg_last_xact_replay_timestamp())
+    private String lagQuery;
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
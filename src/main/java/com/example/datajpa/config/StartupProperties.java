@@ -0,0 +1,15 @@
+package com.example.datajpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.startup")
+public class StartupProperties {
+    private boolean report = true;          // 기동이 끝나면 단계별 소요 시간을 로그로 남긴다 (StartupReport)
+    private int reportTopBeans = 10;        // 생성이 오래 걸린 빈 상위 몇개를 같이 찍을지
+    private boolean exitAfterStart = false; // 기동이 끝나면 바로 종료 (AppCDS 클래스 목록을 만들 때 ./gradlew appCds)
+}
@@ -0,0 +1,14 @@
+package com.example.datajpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.team-summary")
+public class TeamSummaryProperties {
+    // true면 회원이 저장/수정/삭제될 때마다 team_summary를 같이 갱신하고, 팀 통계를 GROUP BY 대신 거기서 읽는다 (TeamSummaryListener)
+    private boolean enabled = false;
+}
@@ -0,0 +1,40 @@
+package com.example.datajpa.config;
+
+import java.util.Optional;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션마다 delegate를 한번만 호출하고, 그 트랜잭션에서 저장/수정되는 엔티티는 모두 같은 값을 쓴다.
+ * (보안 컨텍스트 조회, UUID 생성처럼 비싼 작업이 엔티티 수 만큼 반복되지 않게)
+ * 트랜잭션 밖이면 매번 delegate를 호출한다.
+ */
+public class TransactionScopedAuditorAware<T> implements AuditorAware<T> {
+    private final AuditorAware<T> delegate;
+
+    public TransactionScopedAuditorAware(AuditorAware<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<T> getCurrentAuditor() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return delegate.getCurrentAuditor();
+        }
+        Optional<T> auditor = (Optional<T>) TransactionSynchronizationManager.getResource(this);
+        if (auditor == null) {
+            auditor = delegate.getCurrentAuditor();
+            TransactionSynchronizationManager.bindResource(this, auditor);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionScopedAuditorAware.this);
+                }
+            });
+        }
+        return auditor;
+    }
+}
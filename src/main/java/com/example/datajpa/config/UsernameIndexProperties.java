@@ -0,0 +1,14 @@
+package com.example.datajpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.username-index")
+public class UsernameIndexProperties {
+    private boolean enabled = true;  // false면 findByUsernameCached도 매번 DB를 조회한다
+    private int maxEntries = 100_000; // 들고 있는 username 수가 이것보다 많아지면 비운다
+}
@@ -0,0 +1,23 @@
+package com.example.datajpa.controller;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.datajpa.dto.CacheStatisticsDto;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheStatisticsController {
+    private final EntityManagerFactory emf;
+
+    // 사용예 : http://localhost:8080/cache/statistics
+    @GetMapping("/cache/statistics")
+    public CacheStatisticsDto statistics() {
+        return new CacheStatisticsDto(emf.unwrap(SessionFactory.class).getStatistics());
+    }
+}
@@ -1,17 +1,41 @@
 package com.example.datajpa.controller;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import javax.annotation.PostConstruct;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.datajpa.dto.KeysetWindow;
+import com.example.datajpa.dto.MemberCursor;
 import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.dto.MemberSortKey;
+import com.example.datajpa.dto.MemberVersion;
 import com.example.datajpa.entity.Member;
+import com.example.datajpa.repository.MemberQueryRepository;
 import com.example.datajpa.repository.MemberRepository;
+import com.example.datajpa.repository.PageCountMode;
+import com.example.datajpa.service.MemberExportFormat;
 import com.example.datajpa.service.MemberService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,9 +46,20 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class MemberController {
     private final MemberRepository memberRepository;
+    private final MemberQueryRepository memberQueryRepository;
+    private final MemberService memberService;
 
+    /**
+     * @implNote : 조건부 GET. 클라이언트가 이전 응답의 ETag(If-None-Match)나 Last-Modified(If-Modified-Since)를 보내면
+     * 버전만 조회(MemberQueryRepository.findVersionById)해서 바뀌지 않았으면 엔티티 조회, JSON 변환 없이 304를 준다.
+     * 버전 조회와 실제 조회 사이에 수정되면 새 내용에 예전 ETag가 붙어 나가는데, 다음 요청에서 ETag가 안 맞아 다시 받으니 괜찮다.
+     */
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
+    public String findMember(@PathVariable("id") Long id, WebRequest request) {
+        Optional<MemberVersion> version = memberQueryRepository.findVersionById(id);
+        if (version.isPresent() && request.checkNotModified(version.get().etag(), version.get().lastModifiedMillis())) {
+            return null; // 304 Not Modified
+        }
         Member member = memberRepository.findById(id).get();
         return member.getUsername();
     }
@@ -42,25 +77,111 @@ public class MemberController {
     2. 어노테이션 직접 설정(글로벌 설정보다 우선함) -> @PageDefault(size = 5, sort = "username" ...)
      */
     // 사용예 : http://localhost:8080/members?page=4&size=3&sort=id,desc
+    // count 파라미터(exact, cached, estimated)를 주면 totalCount 구하는 방식을 고를 수 있다. 예) /members?page=100&count=cached
     @GetMapping("/members")
-    public Page<Member> list(@PageableDefault(size = 5) Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
-        return page;
+    // 페이지 ETag/Last-Modified는 같은 페이지의 (id, version) 목록과 최근 수정일로 만든다 (조건부 GET은 findMember 참고)
+    // 200 응답도 버전 조회 결과의 id와 totalCount로 만든다. 페이지 쿼리, count 쿼리를 두번 날리지 않고 ETag와 내용이 같은 row를 가리킨다.
+    public Page<Member> list(@PageableDefault(size = 5) Pageable pageable,
+                             @RequestParam(value = "count", required = false) String count, WebRequest request) {
+        PageCountMode countMode = count != null ? PageCountMode.from(count) : PageCountMode.EXACT;
+        Page<MemberVersion> versions = memberQueryRepository.findVersionPage(pageable, countMode);
+        if (request.checkNotModified(MemberVersion.etag(versions), MemberVersion.lastModifiedMillis(versions))) {
+            return null; // 304 Not Modified
+        }
+        List<Long> ids = versions.map(MemberVersion::getId).getContent();
+        Map<Long, Member> byId = memberRepository.findAllById(ids).stream()
+                                                 .collect(Collectors.toMap(Member::getId, Function.identity()));
+        List<Member> content = ids.stream()
+                                  .map(byId::get)
+                                  .filter(Objects::nonNull) // 버전 조회 뒤에 삭제된 회원
+                                  .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, versions.getTotalElements());
+    }
+
+    /**
+     * @implNote : 여러 회원을 한번에 조회. id가 수천개여도 lookup-chunk-size 단위 in 절로 나눠서 동시에 조회한다. (MemberBatchLookupRepository)
+     * 응답은 요청한 순서대로 나오고, 같은 id는 한번만, 없는 id는 빠진다. ids, names 파라미터가 있을 때만 이 메서드로 오고 없으면 list(페이징)로 간다.
+     */
+    // 사용예 : http://localhost:8080/members?ids=3,1,2
+    @GetMapping(value = "/members", params = "ids")
+    public List<MemberDto> listByIds(@RequestParam("ids") List<Long> ids) {
+        return memberRepository.findDtosByIds(ids);
+    }
+
+    // 사용예 : http://localhost:8080/members?names=member1,member2
+    @GetMapping(value = "/members", params = "names")
+    public List<MemberDto> listByNames(@RequestParam("names") List<String> names) {
+        return memberRepository.findDtosByNames(names);
     }
 
     // 항상 API를 반환할 때는 DTO로 반환하라.
+    // 엔티티를 읽어서 map(MemberDto::new) 하지 않고 처음부터 DTO로 조회한다 (MemberQueryRepository.findMemberDtoPage 참고)
     @GetMapping("/members2")
-    public Page<MemberDto> list2(@PageableDefault(size = 5) Pageable pageable) {
-        return memberRepository.findAll(pageable).map(MemberDto::new);
+    public Page<MemberDto> list2(@PageableDefault(size = 5) Pageable pageable,
+                                 @RequestParam(value = "count", required = false) String count) {
+        PageCountMode countMode = count != null ? PageCountMode.from(count) : PageCountMode.EXACT;
+        return memberQueryRepository.findMemberDtoPage(pageable, countMode);
     }
     // 페이지 번호가 왜 0번부터냐? 1번부터 하고 싶다? -> 니가 커스텀하셈, 직접 만들어야함
     // 또는 One-indexed-parameter 에 true를 준다. 이러면 0이나 1이나 동일한 결과를 내놓는데 한계가 있다.
     // 어떤 한계냐면 페이지 객체 안의 숫자랑 안맞는다(Pageable안의 pageNumber와 커스텀한 페이지 번호와 같지 않다.)
 
+    /**
+     * @implNote : 키셋(커서) 페이징. 깊은 페이지로 갈수록 느려지는 offset 페이징과 달리 항상 일정한 속도가 나온다.
+     * 첫 요청은 cursor 없이, 그 다음부터는 응답의 nextCursor를 그대로 넘겨주면 된다. (page 파라미터는 무시)
+     * 정렬은 첫 요청에만 의미가 있고, 이후에는 커서에 들어있는 정렬을 따른다.
+     */
+    // 사용예 : http://localhost:8080/members/scroll?size=3&sort=username,desc -> http://localhost:8080/members/scroll?size=3&cursor=...
+    @GetMapping("/members/scroll")
+    public KeysetWindow<MemberDto> scroll(@RequestParam(value = "cursor", required = false) String cursor,
+                                          @PageableDefault(size = 5, sort = "id") Pageable pageable) {
+        MemberCursor memberCursor = cursor != null ? MemberCursor.decode(cursor) : firstCursor(pageable.getSort());
+        return memberRepository.findMemberWindow(memberCursor, pageable.getPageSize());
+    }
+
+    /**
+     * @implNote : 전체 회원 내보내기. StreamingResponseBody는 별도 스레드에서 실행되면서 응답을 조금씩(chunked) 내려준다.
+     * 회원이 수백만명이어도 서버는 한번에 한 chunk 분량만 메모리에 들고 있는다.
+     */
+    // 사용예 : http://localhost:8080/members/export?format=csv
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        MemberExportFormat exportFormat = MemberExportFormat.from(format);
+        StreamingResponseBody body = out -> memberService.exportMembers(out, exportFormat);
+        return ResponseEntity.ok()
+                             .contentType(exportFormat.getMediaType())
+                             .header(HttpHeaders.CONTENT_DISPOSITION,
+                                     ContentDisposition.attachment().filename("members." + exportFormat.getExtension()).build().toString())
+                             .body(body);
+    }
+
+    /**
+     * @implNote : 비동기 조회. 서블릿 스레드는 CompletableFuture만 받고 바로 반납되고,
+     * 조회가 끝나면(repositoryExecutor) 스프링 MVC가 그 결과로 응답을 마저 내려준다.
+     * 요청이 몰려도 톰캣 스레드가 JDBC를 기다리며 묶여있지 않는다. (DB 동시 실행 수는 datajpa.async.max-concurrency로 제한)
+     */
+    // 사용예 : http://localhost:8080/members/async?page=0&size=10
+    @GetMapping("/members/async")
+    public CompletableFuture<Page<MemberDto>> listAsync(@PageableDefault(size = 5) Pageable pageable) {
+        return memberRepository.findAllAsync(pageable).thenApply(page -> page.map(MemberDto::new));
+    }
+
+    @GetMapping("/members/async/dto")
+    public CompletableFuture<List<MemberDto>> listDtoAsync(@PageableDefault(size = 5) Pageable pageable) {
+        return memberRepository.findMemberDtoAsync(pageable);
+    }
+
+    private MemberCursor firstCursor(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+        return MemberCursor.first(MemberSortKey.from(order.getProperty()), order.getDirection());
+    }
+
 //    @PostConstruct
     public void init() {
+        List<Member> members = new ArrayList<>();
         for (int i = 0; i < 1000; i++) {
-            memberRepository.save(new Member("user" + i, i));
+            members.add(new Member("user" + i, i));
         }
+        memberRepository.saveAllBatched(members, 100); // save 1000번 대신 배치 insert 10번
     }
 }
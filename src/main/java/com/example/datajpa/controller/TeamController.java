@@ -0,0 +1,23 @@
+package com.example.datajpa.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.datajpa.dto.TeamStatsDto;
+import com.example.datajpa.repository.TeamStatsRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+    private final TeamStatsRepository teamStatsRepository;
+
+    // 사용예 : http://localhost:8080/teams/stats (datajpa.team-summary.enabled=true 면 team_summary에서 읽는다)
+    @GetMapping("/teams/stats")
+    public List<TeamStatsDto> stats() {
+        return teamStatsRepository.findTeamStatsFromSummary();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+// 청크 단위 벌크 작업의 진행 상황 (지금까지 누적값)
+@Getter
+@ToString
+public class BulkUpdateResult {
+    private final int chunks;         // 실행한 청크 수
+    private final long affectedRows;  // 실제로 바뀐(지워진) row 수
+    private final Long lastId;        // 마지막으로 처리한 PK. 중간에 실패하면 여기서부터 다시 하면 된다
+    private final long elapsedMillis;
+
+    public BulkUpdateResult(int chunks, long affectedRows, Long lastId, long elapsedMillis) {
+        this.chunks = chunks;
+        this.affectedRows = affectedRows;
+        this.lastId = lastId;
+        this.elapsedMillis = elapsedMillis;
+    }
+}
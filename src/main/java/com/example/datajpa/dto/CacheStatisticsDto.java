@@ -0,0 +1,52 @@
+package com.example.datajpa.dto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import lombok.Getter;
+
+// 하이버네이트 2차 캐시 / 쿼리 캐시 hit, miss 통계
+@Getter
+public class CacheStatisticsDto {
+    private final long secondLevelCacheHitCount;
+    private final long secondLevelCacheMissCount;
+    private final long secondLevelCachePutCount;
+    private final long queryCacheHitCount;
+    private final long queryCacheMissCount;
+    private final long queryCachePutCount;
+    private final long prepareStatementCount; // 실제로 DB에 보낸 statement 수
+    private final List<Region> regions;
+
+    public CacheStatisticsDto(Statistics statistics) {
+        this.secondLevelCacheHitCount = statistics.getSecondLevelCacheHitCount();
+        this.secondLevelCacheMissCount = statistics.getSecondLevelCacheMissCount();
+        this.secondLevelCachePutCount = statistics.getSecondLevelCachePutCount();
+        this.queryCacheHitCount = statistics.getQueryCacheHitCount();
+        this.queryCacheMissCount = statistics.getQueryCacheMissCount();
+        this.queryCachePutCount = statistics.getQueryCachePutCount();
+        this.prepareStatementCount = statistics.getPrepareStatementCount();
+        this.regions = Stream.of(statistics.getSecondLevelCacheRegionNames())
+                             .sorted()
+                             .map(name -> new Region(name, statistics.getCacheRegionStatistics(name)))
+                             .collect(Collectors.toList());
+    }
+
+    @Getter
+    public static class Region {
+        private final String name;
+        private final long hitCount;
+        private final long missCount;
+        private final long putCount;
+
+        Region(String name, CacheRegionStatistics statistics) {
+            this.name = name;
+            this.hitCount = statistics.getHitCount();
+            this.missCount = statistics.getMissCount();
+            this.putCount = statistics.getPutCount();
+        }
+    }
+}
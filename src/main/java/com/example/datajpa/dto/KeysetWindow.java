@@ -0,0 +1,24 @@
+package com.example.datajpa.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * @implNote : 키셋 페이징 결과. Page와 달리 totalCount, totalPages가 없다. (count 쿼리를 안 날리니까)
+ * Slice처럼 다음 페이지 존재 여부만 알고, 다음 페이지를 가져올 커서를 같이 내려준다.
+ */
+@Getter
+public class KeysetWindow<T> {
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor; // 마지막 페이지면 null
+
+    public KeysetWindow(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+}
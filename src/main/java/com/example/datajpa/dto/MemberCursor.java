@@ -0,0 +1,67 @@
+package com.example.datajpa.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @implNote : 키셋(seek) 페이징용 커서. "정렬키 + 마지막 id" 를 들고 다닌다.
+ * 클라이언트에게는 Base64 문자열(opaque)로만 노출하고, 서버에서만 해석한다.
+ * 정렬키 값이 같은 row가 여러개일 수 있으니 항상 id를 두번째 정렬키(tie-breaker)로 사용한다.
+ */
+@Getter
+@ToString
+public class MemberCursor {
+    private static final String DELIMITER = "\u0000";
+
+    private final MemberSortKey sortKey;
+    private final Direction direction;
+    private final String lastValue; // 마지막 row의 정렬키 값 (첫 페이지거나, 마지막 row의 값이 null이면 null)
+    private final Long lastId;      // 마지막 row의 id (첫 페이지면 null)
+
+    private MemberCursor(MemberSortKey sortKey, Direction direction, String lastValue, Long lastId) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+    }
+
+    public static MemberCursor first(MemberSortKey sortKey, Direction direction) {
+        return new MemberCursor(sortKey, direction, null, null);
+    }
+
+    public static MemberCursor after(MemberSortKey sortKey, Direction direction, Object lastValue, Long lastId) {
+        return new MemberCursor(sortKey, direction, lastValue == null ? null : String.valueOf(lastValue), lastId);
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public String encode() {
+        // 마지막 칸 : 값이 null인지 ("null" 문자열과 구분)
+        String raw = String.join(DELIMITER, sortKey.name(), direction.name(),
+                lastValue == null ? "" : lastValue, isFirst() ? "" : String.valueOf(lastId), lastValue == null ? "0" : "1");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(DELIMITER, -1);
+            MemberSortKey sortKey = MemberSortKey.valueOf(parts[0]);
+            Direction direction = Direction.valueOf(parts[1]);
+            if (parts[3].isEmpty()) {
+                return first(sortKey, direction);
+            }
+            String lastValue = parts.length > 4 && parts[4].equals("0") ? null : parts[2];
+            return new MemberCursor(sortKey, direction, lastValue, Long.valueOf(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.datajpa.dto;
+
+import java.util.function.Function;
+
+import lombok.Getter;
+
+// 키셋 페이징에서 허용하는 정렬키. 아무 컬럼으로나 정렬하게 두면 인덱스를 못 타니 화이트리스트로 관리한다.
+@Getter
+public enum MemberSortKey {
+    ID("id", false, Long::valueOf),
+    USERNAME("username", true, value -> value),
+    AGE("age", false, Integer::valueOf);
+
+    private final String property;
+    private final boolean nullable; // null인 row는 오름차순이면 맨 뒤, 내림차순이면 맨 앞 (nulls last/first)
+    private final Function<String, Object> parser;
+
+    MemberSortKey(String property, boolean nullable, Function<String, Object> parser) {
+        this.property = property;
+        this.nullable = nullable;
+        this.parser = parser;
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static MemberSortKey from(String property) {
+        for (MemberSortKey key : values()) {
+            if (key.property.equals(property)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("키셋 페이징을 지원하지 않는 정렬키입니다: " + property);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.datajpa.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+import org.springframework.data.domain.Page;
+import org.springframework.util.DigestUtils;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 조건부 요청(If-None-Match, If-Modified-Since)을 판단하기 위한 회원의 버전 정보. 엔티티 대신 세 컬럼만 조회한다.
+ * ETag는 @Version 값으로 만든다. 수정 시각(초 단위)보다 정확하고 벌크 업데이트도 version을 올린다.
+ */
+@Getter
+@ToString
+public class MemberVersion {
+    private final Long id;
+    private final long version;
+    private final LocalDateTime lastModifiedDate;
+
+    public MemberVersion(Long id, Long version, LocalDateTime lastModifiedDate) {
+        this.id = id;
+        this.version = version == null ? 0 : version;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    // 같은 회원의 같은 버전이면 JSON 표현이 조금 달라도 같은 내용이라 weak ETag
+    public String etag() {
+        return "W/\"" + id + "-" + version + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return toMillis(lastModifiedDate);
+    }
+
+    // 페이지 ETag : 페이지에 들어있는 (id, version) 목록 + 전체 개수. 회원이 추가/삭제/수정되어 페이지 내용이 바뀌면 달라진다.
+    public static String etag(Page<MemberVersion> page) {
+        StringBuilder builder = new StringBuilder().append(page.getTotalElements());
+        for (MemberVersion member : page) {
+            builder.append(',').append(member.id).append('-').append(member.version);
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // 페이지 Last-Modified : 페이지 안에서 가장 최근 수정 시각
+    public static long lastModifiedMillis(Page<MemberVersion> page) {
+        return page.stream()
+                   .map(MemberVersion::getLastModifiedDate)
+                   .filter(Objects::nonNull)
+                   .max(LocalDateTime::compareTo)
+                   .map(MemberVersion::toMillis)
+                   .orElse(-1L);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
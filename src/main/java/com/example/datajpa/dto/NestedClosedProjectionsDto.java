@@ -0,0 +1,34 @@
+package com.example.datajpa.dto;
+
+import com.example.datajpa.repository.NestedClosedProjections;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @implNote : NestedClosedProjections를 프록시 대신 직접 구현한 클래스.
+ * 인터페이스 프로젝션은 중첩된 team을 엔티티 통째로(team의 모든 컬럼) 가져오지만,
+ * JPQL new 생성자로 받으면 필요한 컬럼(m.username, t.name)만 select 한다.
+ * 값은 생성할 때 한번만 채우고 getter는 필드만 돌려주기 때문에 프록시/리플렉션 호출 비용도 없다.
+ */
+@Getter
+@ToString
+public class NestedClosedProjectionsDto implements NestedClosedProjections {
+    private final String username;
+    private final TeamInfoDto team;
+
+    public NestedClosedProjectionsDto(String username, String teamName) {
+        this.username = username;
+        this.team = teamName != null ? new TeamInfoDto(teamName) : null; // 팀이 없는 회원은 인터페이스 프로젝션처럼 null
+    }
+
+    @Getter
+    @ToString
+    public static class TeamInfoDto implements TeamInfo {
+        private final String name;
+
+        public TeamInfoDto(String name) {
+            this.name = name;
+        }
+    }
+}
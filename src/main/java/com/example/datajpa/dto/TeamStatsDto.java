@@ -0,0 +1,30 @@
+package com.example.datajpa.dto;
+
+import lombok.Data;
+
+// 팀별 회원 수와 나이 통계. 회원이 없는 팀은 memberCount 0, 나이는 null
+@Data
+public class TeamStatsDto {
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private Integer minAge;
+    private Integer maxAge;
+    private Double avgAge;
+
+    // GROUP BY 조회 : count, min, max, avg
+    public TeamStatsDto(Long teamId, String teamName, Long memberCount, Integer minAge, Integer maxAge, Double avgAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount == null ? 0 : memberCount;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.avgAge = avgAge;
+    }
+
+    // team_summary 조회 : 평균은 나이 합계 / 회원 수
+    public TeamStatsDto(Long teamId, String teamName, Long memberCount, Long ageSum, Integer minAge, Integer maxAge) {
+        this(teamId, teamName, memberCount, minAge, maxAge,
+             memberCount == null || memberCount == 0 ? null : (double) ageSum / memberCount);
+    }
+}
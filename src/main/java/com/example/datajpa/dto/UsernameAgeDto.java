@@ -0,0 +1,24 @@
+package com.example.datajpa.dto;
+
+import com.example.datajpa.repository.UsernameOnly;
+
+import lombok.ToString;
+
+/**
+ * @implNote : UsernameOnly(Open Projection)를 대신하는 클래스.
+ * Open Projection은 Member 엔티티를 전부 읽어온 다음 getUsername()을 호출할 때마다 SpEL을 평가하지만,
+ * 여기서는 username, age 두 컬럼만 select 해서 생성할 때 한번만 이어 붙인다.
+ */
+@ToString
+public class UsernameAgeDto implements UsernameOnly {
+    private final String username;
+
+    public UsernameAgeDto(String username, int age) {
+        this.username = username + " " + age; // UsernameOnly의 @Value("#{target.username + ' ' + target.age}") 와 같은 결과
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+}
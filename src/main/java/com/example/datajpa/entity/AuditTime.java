@@ -0,0 +1,27 @@
+package com.example.datajpa.entity;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * 엔티티 콜백(@PrePersist 등)은 스프링 빈을 주입받지 못해서, 현재 시각을 어디서 가져올지 여기에 정해둔다.
+ * 기본은 LocalDateTime.now(), 스프링이 뜨면 AuditingConfig가 CoarseClock으로 바꾸고 컨텍스트가 닫히면 되돌린다.
+ */
+public final class AuditTime {
+    private static volatile Supplier<LocalDateTime> source = LocalDateTime::now;
+
+    private AuditTime() {
+    }
+
+    public static LocalDateTime now() {
+        return source.get();
+    }
+
+    public static void use(Supplier<LocalDateTime> now) {
+        source = now;
+    }
+
+    public static void reset() {
+        source = LocalDateTime::now;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.datajpa.entity;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import com.example.datajpa.config.AuditingProperties;
+
+/**
+ * AuditingEntityListener와 같지만 datajpa.auditing.mode=flush 이면 아무것도 하지 않는다. (그때는 AuditingFlushListener가 채운다)
+ * 하이버네이트가 엔티티 리스너를 스프링 빈 팩토리로 만들기 때문에 @Autowired 세터로 주입받을 수 있다.
+ */
+public class AuditingListener extends AuditingEntityListener {
+    private boolean flushMode;
+
+    @Autowired
+    @Override
+    public void setAuditingHandler(ObjectFactory<AuditingHandler> auditingHandler) {
+        super.setAuditingHandler(auditingHandler);
+    }
+
+    @Autowired(required = false)
+    public void setProperties(AuditingProperties properties) {
+        this.flushMode = properties.getMode() == AuditingProperties.Mode.FLUSH;
+    }
+
+    @Override
+    @PrePersist
+    public void touchForCreate(Object target) {
+        if (!flushMode) {
+            super.touchForCreate(target);
+        }
+    }
+
+    @Override
+    @PreUpdate
+    public void touchForUpdate(Object target) {
+        if (!flushMode) {
+            super.touchForUpdate(target);
+        }
+    }
+}
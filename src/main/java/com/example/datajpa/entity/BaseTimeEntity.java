@@ -8,12 +8,11 @@ import javax.persistence.MappedSuperclass;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import lombok.Getter;
 
 @Getter
-@EntityListeners(AuditingEntityListener.class) // 이게 귀찮다면 META-INF/orm.xml 을 만들어주면 된다.
+@EntityListeners(AuditingListener.class) // 이게 귀찮다면 META-INF/orm.xml 을 만들어주면 된다. (AuditingListener = AuditingEntityListener + flush 모드)
 @MappedSuperclass
 public class BaseTimeEntity {
     @CreatedDate // spring-data 쪽 annotation
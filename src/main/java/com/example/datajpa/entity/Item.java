@@ -2,6 +2,7 @@ package com.example.datajpa.entity;
 
 import java.time.LocalDateTime;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
@@ -24,12 +25,20 @@ public class Item implements Persistable<String> {
     private String id;
 
     @CreatedDate // JPA 이벤트임. 따라서 Persist 될 때 값이 채워지는 것임
+    @Column(updatable = false) // upsertAll로 이미 있는 row를 덮어써도 등록일은 그대로
     private LocalDateTime createdDate;
 
+    private String name;
+
     public Item(String id) {
         this.id = id;
     }
 
+    public Item(String id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
     @Override
     public boolean isNew() {
         return createdDate == null;
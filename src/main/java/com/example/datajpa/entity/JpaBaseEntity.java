@@ -19,13 +19,13 @@ public class JpaBaseEntity {
 
     @PrePersist // persist 하기전에 이벤트 발생, 순수 Jpa 제공
     public void prePersist() {
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = AuditTime.now();
         createdDate = now;
         updatedDate = now;
     }
 
     @PreUpdate // update 하기 전에 이벤트 발생, 순수 Jpa 제공
     public void preUpdate(){
-        updatedDate = LocalDateTime.now();
+        updatedDate = AuditTime.now();
     }
 }
@@ -1,15 +1,26 @@
 package com.example.datajpa.entity;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedAttributeNode;
 import javax.persistence.NamedEntityGraph;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -19,18 +30,24 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@Table(indexes = @Index(name = "idx_member_username", columnList = "username")) // username 조회가 가장 많아서 인덱스 (ddl-auto로 생성)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 2차 캐시 : 수정도 되는 엔티티라 READ_WRITE
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = { "id", "username", "age" }) // 가급적이면 연관관계 필드는 toString에 포함시키지 말 것.
 @NamedQuery(
         name = "Member.findByUsername",
-        query = "select m from Member m where m.username = :username"
+        query = "select m from Member m where m.username = :username",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true") // 쿼리 캐시. member 테이블이 바뀌면 자동으로 무효화된다
 )
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team")) // jpa 표준스펙임
+// allocationSize 만큼 시퀀스를 미리 당겨와서(pooled optimizer) 메모리에서 id를 할당한다. 매 insert마다 시퀀스 조회하는 왕복이 없어짐
+@SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
 public class Member extends BaseEntity {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
     @Column(name = "member_id") //DB테이블을 위한 명시적인 이름 짓기
     private Long id;
 
@@ -42,6 +59,15 @@ public class Member extends BaseEntity {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    // 낙관적 락 : update ... where member_id=? and version=? 으로 수정하고, 그 사이 누가 먼저 고쳤으면 예외 (OptimisticRetry 참고)
+    // Long(null 가능)인 이유 : Example probe에서 null이어야 QBE 조건에 version = 0 이 끼어들지 않는다
+    // 컬럼은 not null default 0 : 하이버네이트를 거치지 않고 넣은 row도 version이 null이 되지 않게
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @Builder
     public Member(String username) {
         this.username = username;
@@ -60,14 +86,18 @@ public class Member extends BaseEntity {
 
     public void changeTeam(Team team) {
         if (this.team != null) {
-            team.getMembers().remove(this);
+            this.team.removeMember(this); // 새 팀이 아니라 원래 팀에서 빼야 한다
         }
         this.team = team;
-        team.getMembers().add(this);
+        team.addMember(this);
     }
 
     // Setter보다 이게 더 낫다.
     public void changeUsername(String username) {
         this.username = username;
     }
+
+    public void addAge(int delta) {
+        this.age += delta;
+    }
 }
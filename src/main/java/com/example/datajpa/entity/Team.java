@@ -1,13 +1,25 @@
 package com.example.datajpa.entity;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
+
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+import org.hibernate.annotations.OptimisticLock;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -16,21 +28,51 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = { "id", "name" })
+@SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
 public class Team extends JpaBaseEntity {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @OneToMany(mappedBy = "team")
-    private List<Member> members = new ArrayList<>();
+    @OptimisticLock(excluded = true) // 회원이 들어오고 나가는 것으로는 팀 version을 올리지 않는다 (팀 하나에 회원을 동시에 넣어도 충돌 안나게)
+    // EXTRA : size(), contains(), add(), remove()를 컬렉션 초기화 없이 SQL로 처리한다. (회원이 수만명인 팀도 전부 읽지 않음)
+    // List(bag) 대신 Set : 초기화된 뒤에도 add/remove가 O(1)
+    @LazyCollection(LazyCollectionOption.EXTRA)
+    private Set<Member> members = new HashSet<>();
 
     public Team(String name) {
         this.name = name;
     }
+
+    /**
+     * @implNote : 연관관계 주인은 Member.team 이고, 여기는 메모리상의 반대편만 맞춘다. (Member.changeTeam 에서 호출)
+     * 초기화 안 된 컬렉션에 add/remove 하면 하이버네이트가 (team_id, member_id)로 존재 여부만 조회하고 변경을 큐에 쌓아둔다.
+     * 아직 저장 안 된 회원(id 없음)은 DB에 있을 수가 없어서 존재 여부를 물어볼 수 없으니 건너뛴다. flush 후에는 size()/contains()에 잡힌다.
+     */
+    void addMember(Member member) {
+        if (Hibernate.isInitialized(members) || member.getId() != null) {
+            members.add(member);
+        }
+    }
+
+    void removeMember(Member member) {
+        if (Hibernate.isInitialized(members) || member.getId() != null) {
+            members.remove(member);
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.datajpa.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 팀별 회원 통계를 미리 계산해 둔 테이블. 테이블 생성(ddl-auto)과 JPQL 조인을 위해 엔티티로 매핑만 하고,
+ * 값은 TeamSummaryListener가 SQL로 직접 갱신한다. (엔티티로 읽어서 고치지 않는다)
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class TeamSummary {
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum; // 평균 = ageSum / memberCount
+    private Integer minAge;
+    private Integer maxAge;
+}
@@ -0,0 +1,35 @@
+package com.example.datajpa.monitoring;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+// 엔티티가 영속성 컨텍스트에 로딩될 때마다(DB든 2차 캐시든) 현재 스레드의 카운터를 올린다.
+@Component
+@RequiredArgsConstructor
+public class EntityLoadCountingListener implements PostLoadEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    void register() {
+        emf.unwrap(SessionFactoryImpl.class)
+           .getServiceRegistry()
+           .getService(EventListenerRegistry.class)
+           .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        ThreadCounters.incrementEntitiesLoaded();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.datajpa.monitoring;
+
+import java.util.Map;
+
+import lombok.Getter;
+
+@Getter
+public class NPlusOneDetectedException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Integer> repeatedSelects;
+
+    public NPlusOneDetectedException(Map<String, Integer> repeatedSelects) {
+        super("N+1 의심 쿼리가 발견되었습니다 (같은 SELECT 반복) : " + repeatedSelects);
+        this.repeatedSelects = repeatedSelects;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.datajpa.monitoring;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import com.example.datajpa.config.NPlusOneProperties;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : HTTP 요청 하나 동안 나간 SQL을 세고, 같은 SELECT가 threshold 번 이상 반복되면 N+1로 보고 경고를 남긴다.
+ * fail-on-detection 을 켜면 예외를 던져서 개발 중에 바로 눈에 띄게 할 수 있다.
+ * 이때는 응답 본문을 메모리에 모아뒀다가(ContentCachingResponseWrapper) N+1이 없을 때만 내보낸다.
+ * 본문이 이미 나가버린 뒤에 예외를 던지면 클라이언트는 200을 받거나 깨진 응답을 받기 때문. (그래서 개발/테스트용)
+ * 비동기 요청(StreamingResponseBody 등)은 마지막 async dispatch 때 모아둔 본문을 내보낸다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NPlusOneDetectionFilter extends OncePerRequestFilter {
+    private final NPlusOneProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false; // 모아둔 본문을 async dispatch 끝에 내보내야 한다
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            filterChain.doFilter(request, response);
+            copyBody(response);
+            return;
+        }
+        HttpServletResponse target = properties.isFailOnDetection() ? new ContentCachingResponseWrapper(response) : response;
+        QueryCounter counter = QueryCounterHolder.start();
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            QueryCounterHolder.stop();
+        }
+
+        Map<String, Integer> repeated = counter.repeatedSelects(properties.getThreshold());
+        if (!repeated.isEmpty() && properties.isFailOnDetection()) {
+            throw new NPlusOneDetectedException(repeated); // 본문은 아직 안 나갔다
+        }
+        if (!repeated.isEmpty()) {
+            log.warn("N+1 의심 : {} {} (총 {}개 SQL) {}", request.getMethod(), request.getRequestURI(), counter.getStatementCount(), repeated);
+        }
+        if (!isAsyncStarted(request)) {
+            copyBody(target);
+        }
+    }
+
+    private static void copyBody(HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper != null) {
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
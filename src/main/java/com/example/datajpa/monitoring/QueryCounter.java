@@ -0,0 +1,44 @@
+package com.example.datajpa.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * @implNote : 한 흐름(요청, 테스트 등)에서 실행된 SQL을 센다.
+ * 파라미터만 다르고 모양이 같은 SELECT가 여러번 나가면 N+1을 의심할 수 있다.
+ *     select ... from team where team_id=?   <- 회원 수 만큼 반복
+ * 한 스레드 안에서만 쓰기 때문에 동기화하지 않는다. (QueryCounterHolder 참고)
+ */
+@Getter
+public class QueryCounter {
+    private int statementCount;
+    private final Map<String, Integer> selectCounts = new LinkedHashMap<>();
+
+    void record(String sql) {
+        statementCount++;
+        if (sql != null && sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+            selectCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    // 같은 SELECT가 threshold 번 이상 나간 것들
+    public Map<String, Integer> repeatedSelects(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        selectCounts.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    public void verifyNoRepeatedSelects(int threshold) {
+        Map<String, Integer> repeated = repeatedSelects(threshold);
+        if (!repeated.isEmpty()) {
+            throw new NPlusOneDetectedException(repeated);
+        }
+    }
+}
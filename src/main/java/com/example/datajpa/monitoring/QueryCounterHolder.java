@@ -0,0 +1,41 @@
+package com.example.datajpa.monitoring;
+
+/**
+ * 현재 스레드에서 실행되는 SQL을 세는 QueryCounter를 들고 있는다.
+ * start() ~ stop() 사이에 p6spy를 거쳐 실행된 SQL이 모두 기록된다. (QueryCountingListener)
+ */
+public final class QueryCounterHolder {
+    private static final ThreadLocal<QueryCounter> COUNTER = new ThreadLocal<>();
+
+    private QueryCounterHolder() {
+    }
+
+    public static QueryCounter start() {
+        QueryCounter counter = new QueryCounter();
+        COUNTER.set(counter);
+        return counter;
+    }
+
+    public static QueryCounter current() {
+        return COUNTER.get();
+    }
+
+    public static void stop() {
+        COUNTER.remove();
+    }
+
+    // 테스트에서 쓰기 편하게 : 블록 안에서 나간 SQL을 세어서 돌려준다.
+    public static QueryCounter count(Runnable runnable) {
+        QueryCounter previous = COUNTER.get();
+        QueryCounter counter = start();
+        try {
+            runnable.run();
+            return counter;
+        } finally {
+            COUNTER.set(previous);
+            if (previous == null) {
+                COUNTER.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.datajpa.monitoring;
+
+import java.sql.SQLException;
+
+import org.springframework.stereotype.Component;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+// p6spy-spring-boot-starter는 JdbcEventListener 빈을 자동으로 DataSource에 걸어준다.
+@Component
+public class QueryCountingListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        ThreadCounters.incrementStatements();
+        QueryCounter counter = QueryCounterHolder.current();
+        if (counter != null) {
+            counter.record(statementInformation.getSql());
+        }
+    }
+}
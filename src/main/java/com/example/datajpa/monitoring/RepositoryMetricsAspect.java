@@ -0,0 +1,119 @@
+package com.example.datajpa.monitoring;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @implNote : 리포지토리 메서드마다 아래 지표를 Micrometer에 남긴다. (/actuator/metrics/datajpa.repository.invocations?tag=method:MemberRepository.findByUsername)
+ * - datajpa.repository.invocations : 실행 시간 (Timer, outcome=success/error)
+ * - datajpa.repository.rows : 반환한 row 수 (List/Page/Slice 크기, 단건은 0 또는 1). Stream, CompletableFuture는 반환 시점에 row 수를 알 수 없어서 남기지 않는다.
+ * - datajpa.repository.statements : 실행된 SQL 수
+ * - datajpa.repository.entities : 영속성 컨텍스트에 로딩된 엔티티 수
+ * SQL/엔티티 수는 스레드 카운터(ThreadCounters)의 전후 차이라서 로그를 남기지 않고도 거의 비용이 없다.
+ * 메서드별 Meter는 처음 한번만 만들어서 재사용한다. 비동기 메서드(CompletableFuture)는 호출 시점까지만 잰다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+    private final MeterRegistry registry;
+    // save, findById 처럼 CrudRepository에 선언된 메서드는 리포지토리가 달라도 Method가 같아서 프록시 클래스별로 따로 둔다
+    private final Map<Class<?>, Map<Method, RepositoryMeters>> meters = new ConcurrentHashMap<>();
+
+    // 스프링 데이터 리포지토리(MemberRepository 등) + 직접 만든 @Repository(MemberJpaRepository, TeamJpaRepository)
+    @Around("execution(public * *(..)) && !execution(* java.lang.Object.*(..)) "
+            + "&& (this(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Repository))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryMeters meter = meters.computeIfAbsent(joinPoint.getThis().getClass(), type -> new ConcurrentHashMap<>())
+                                       .computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                                                        method -> new RepositoryMeters(registry, methodName(joinPoint, method)));
+        long statements = ThreadCounters.statements();
+        long entities = ThreadCounters.entitiesLoaded();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = joinPoint.proceed();
+            success = true;
+            if (!isDeferred(result)) {
+                meter.rows.record(rows(result));
+            }
+            return result;
+        } finally {
+            (success ? meter.success : meter.error).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meter.statements.record(ThreadCounters.statements() - statements);
+            meter.entities.record(ThreadCounters.entitiesLoaded() - entities);
+        }
+    }
+
+    // MemberRepository.findByUsername 처럼 "리포지토리 인터페이스(클래스).메서드"
+    private static String methodName(ProceedingJoinPoint joinPoint, Method method) {
+        Class<?> repository = joinPoint.getTarget().getClass();
+        for (Class<?> type : joinPoint.getThis().getClass().getInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && type != Repository.class) {
+                repository = type; // 스프링 데이터 프록시면 SimpleJpaRepository 대신 MemberRepository
+                break;
+            }
+        }
+        return repository.getSimpleName() + "." + method.getName();
+    }
+
+    // 아직 읽지 않은 Stream(커서), 끝나지 않은 비동기 결과
+    private static boolean isDeferred(Object result) {
+        return result instanceof BaseStream || result instanceof Future;
+    }
+
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) { // Page 포함
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean) {
+            return 0; // count, 벌크 update 결과, exists
+        }
+        return 1;
+    }
+
+    private static class RepositoryMeters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+        private final DistributionSummary statements;
+        private final DistributionSummary entities;
+
+        RepositoryMeters(MeterRegistry registry, String method) {
+            this.success = Timer.builder("datajpa.repository.invocations").tag("method", method).tag("outcome", "success").register(registry);
+            this.error = Timer.builder("datajpa.repository.invocations").tag("method", method).tag("outcome", "error").register(registry);
+            this.rows = DistributionSummary.builder("datajpa.repository.rows").tag("method", method).register(registry);
+            this.statements = DistributionSummary.builder("datajpa.repository.statements").tag("method", method).register(registry);
+            this.entities = DistributionSummary.builder("datajpa.repository.entities").tag("method", method).register(registry);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.datajpa.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationContextInitializedEvent;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import com.example.datajpa.config.StartupProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : 기동 단계별 소요 시간을 기동이 끝날 때 한번, 첫 요청이 끝날 때 한번 로그로 남긴다. (datajpa.startup.*)
+ *   jvm           : JVM 시작 -> SpringApplication.run (클래스 로딩. AppCDS 아카이브를 쓰면 줄어든다)
+ *   environment   : 설정 파일/프로필 읽기
+ *   context       : 빈 생성 + Flyway + JPA 초기화 (refresh). 생성이 오래 걸린 빈 상위 N개를 같이 찍는다
+ *   runners       : ApplicationRunner/CommandLineRunner
+ *   first request : 준비 완료 -> 첫 요청 응답 완료 (지연 초기화한 것들의 비용이 여기로 옮겨간다)
+ * 빈별 시간은 BufferingApplicationStartup에서 꺼낸다. (/actuator/startup 으로도 볼 수 있다)
+ * 스프링 컨텍스트가 만들어지기 전 이벤트부터 받아야 해서 빈이 아니라 SpringApplication에 직접 등록한다. (install)
+ */
+@Slf4j
+public class StartupReport implements ApplicationListener<ApplicationEvent> {
+    private static final int BUFFER_CAPACITY = 4096;
+
+    private final BufferingApplicationStartup applicationStartup;
+    private StartupProperties properties = new StartupProperties();
+    private long starting;
+    private long environmentPrepared;
+    private long contextInitialized;
+    private long started;
+    private long ready;
+    private volatile boolean firstRequestHandled;
+
+    private StartupReport(BufferingApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    public static void install(SpringApplication application) {
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(BUFFER_CAPACITY);
+        application.setApplicationStartup(applicationStartup);
+        application.addListeners(new StartupReport(applicationStartup));
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ServletRequestHandledEvent) {
+            if (!firstRequestHandled) {
+                firstRequest((ServletRequestHandledEvent) event);
+            }
+        } else if (event instanceof ApplicationStartingEvent) {
+            starting = event.getTimestamp();
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            environmentPrepared = event.getTimestamp();
+            properties = Binder.get(((ApplicationEnvironmentPreparedEvent) event).getEnvironment())
+                               .bind("datajpa.startup", StartupProperties.class)
+                               .orElseGet(StartupProperties::new);
+        } else if (event instanceof ApplicationContextInitializedEvent) {
+            contextInitialized = event.getTimestamp();
+        } else if (event instanceof ApplicationStartedEvent) {
+            started = event.getTimestamp();
+        } else if (event instanceof ApplicationReadyEvent) {
+            ready = event.getTimestamp();
+            report();
+            if (properties.isExitAfterStart()) {
+                ConfigurableApplicationContext context = ((ApplicationReadyEvent) event).getApplicationContext();
+                System.exit(SpringApplication.exit(context));
+            }
+        }
+    }
+
+    private void report() {
+        if (!properties.isReport()) {
+            return;
+        }
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        log.info("기동 시간 {}ms (JVM 시작부터 {}ms) : jvm {}ms, environment {}ms, context {}ms, runners {}ms",
+                 ready - starting, ready - jvmStart, starting - jvmStart, environmentPrepared - starting,
+                 started - contextInitialized, ready - started);
+        StartupTimeline timeline = applicationStartup.getBufferedTimeline();
+        String slowBeans = timeline.getEvents().stream()
+                                   .filter(event -> "spring.beans.instantiate".equals(event.getStartupStep().getName()))
+                                   .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                                   .limit(properties.getReportTopBeans())
+                                   .map(event -> beanName(event) + " " + event.getDuration().toMillis() + "ms")
+                                   .collect(Collectors.joining(", "));
+        log.info("생성이 오래 걸린 빈 (하위 빈 포함) : {}", slowBeans);
+    }
+
+    private synchronized void firstRequest(ServletRequestHandledEvent event) {
+        if (firstRequestHandled) {
+            return;
+        }
+        firstRequestHandled = true;
+        if (properties.isReport()) {
+            long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+            log.info("첫 요청 {} 완료 : 준비 완료 후 {}ms, JVM 시작부터 {}ms (요청 처리 {}ms)", event.getRequestUrl(),
+                     event.getTimestamp() - ready, event.getTimestamp() - jvmStart, event.getProcessingTimeMillis());
+        }
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent event) {
+        for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
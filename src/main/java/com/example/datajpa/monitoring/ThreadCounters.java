@@ -0,0 +1,31 @@
+package com.example.datajpa.monitoring;
+
+/**
+ * 스레드별 누적 카운터 (실행된 SQL 수, 로딩된 엔티티 수).
+ * 값 자체는 의미가 없고, 어떤 작업 전후의 차이로 "그 작업이 SQL을 몇 번 보냈는지"를 구한다. (RepositoryMetricsAspect)
+ * QueryCounter와 달리 항상 켜져 있어서 가볍게 long 증가만 한다.
+ */
+public final class ThreadCounters {
+    private static final ThreadLocal<long[]> COUNTERS = ThreadLocal.withInitial(() -> new long[2]);
+    private static final int STATEMENTS = 0;
+    private static final int ENTITIES_LOADED = 1;
+
+    private ThreadCounters() {
+    }
+
+    public static long statements() {
+        return COUNTERS.get()[STATEMENTS];
+    }
+
+    public static long entitiesLoaded() {
+        return COUNTERS.get()[ENTITIES_LOADED];
+    }
+
+    static void incrementStatements() {
+        COUNTERS.get()[STATEMENTS]++;
+    }
+
+    static void incrementEntitiesLoaded() {
+        COUNTERS.get()[ENTITIES_LOADED]++;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.datajpa.repository;
+
+/**
+ * id를 직접 넣는(외부 키, UUID 등) 엔티티용 저장 메서드. ItemRepository 처럼 리포지토리 인터페이스에 같이 상속받아서 쓴다.
+ * save()는 isNew()가 false로 판단되면 merge(select 후 insert/update)로 가지만, 여기 메서드는 merge를 하지 않는다.
+ */
+public interface AssignedIdRepository<T> {
+    // 무조건 insert (JDBC 배치). 이미 있는 id면 DataIntegrityViolationException. 끝나면 영속성 컨텍스트를 비운다.
+    int persistAll(Iterable<T> entities);
+
+    // 없으면 insert, 있으면 update (H2 MERGE INTO). select 없이 배치 하나로 보낸다. 반환값은 insert/update된 row 수.
+    int upsertAll(Iterable<T> entities);
+}
@@ -0,0 +1,231 @@
+package com.example.datajpa.repository;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.Assigned;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.SingleTableEntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * @implNote : 리포지토리마다 하나씩 만들지 않고 엔티티 클래스로 하이버네이트 메타데이터(EntityPersister)를 찾아서 쓰는 공용 구현.
+ * persistAll : save()는 Persistable.isNew()를 보고 persist/merge를 고르는데, isNew()가 잘못 판단하면 merge -> select 한번 + insert가 된다.
+ *   여기서는 항상 persist만 하고 batchSize(hibernate.jdbc.batch_size)마다 flush/clear 한다. (saveAllBatched와 같은 방식)
+ * upsertAll : 엔티티 매핑으로 아래 SQL을 한번 만들어두고(엔티티 클래스별 캐시) JDBC 배치로 보낸다. 충돌 판단은 DB가 PK로 한다.
+ *   merge into item t using (select 1) s on t.item_id = ?
+ *   when matched then update set (updatable 컬럼) when not matched then insert (insertable 컬럼) values (...)
+ *   - @Column(updatable = false) 컬럼(등록일 등)은 이미 있는 row에서 바뀌지 않는다.
+ *   - 감사 컬럼은 AuditingHandler로 직접 채운다. (엔티티 리스너를 거치지 않기 때문)
+ *   - @Version 엔티티, 상속 매핑(조인/테이블별), id 생성 전략이 있는 엔티티는 지원하지 않는다.
+ *   - DB 방언에 맞춰 SQL을 만들지 않고 H2(표준 MERGE)만 고려했다. (MySQL이면 insert ... on duplicate key update, PostgreSQL이면 on conflict)
+ */
+public class AssignedIdRepositoryImpl<T> implements AssignedIdRepository<T> {
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final EntityManager em;
+    private final ObjectProvider<AuditingHandler> auditingHandler;
+    private final ConcurrentHashMap<Class<?>, UpsertStatement> statements = new ConcurrentHashMap<>();
+
+    public AssignedIdRepositoryImpl(EntityManager em, ObjectProvider<AuditingHandler> auditingHandler) {
+        this.em = em;
+        this.auditingHandler = auditingHandler;
+    }
+
+    @Override
+    @Transactional
+    public int persistAll(Iterable<T> entities) {
+        int batchSize = batchSize();
+        int count = 0;
+        for (T entity : entities) {
+            em.persist(entity);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+
+    @Override
+    @Transactional
+    public int upsertAll(Iterable<T> entities) {
+        Iterator<T> iterator = entities.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+        em.flush(); // 영속성 컨텍스트에 쌓인 변경이 나중에 덮어쓰지 않도록 먼저 반영
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        T first = iterator.next();
+        UpsertStatement statement = statements.computeIfAbsent(first.getClass(), entityClass -> UpsertStatement.of(persister(session, entityClass)));
+        AuditingHandler handler = auditingHandler.getIfUnique();
+        int batchSize = batchSize();
+
+        List<T> chunk = new ArrayList<>(batchSize);
+        int affected = 0;
+        for (T entity = first; entity != null; entity = iterator.hasNext() ? iterator.next() : null) {
+            if (handler != null) {
+                handler.markCreated(entity); // 이미 있는 row면 updatable = false 인 등록일/등록자는 무시된다
+            }
+            chunk.add(entity);
+            if (chunk.size() == batchSize) {
+                affected += execute(session, statement, chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            affected += execute(session, statement, chunk);
+        }
+        return affected;
+    }
+
+    private int execute(SessionImplementor session, UpsertStatement statement, List<T> chunk) {
+        int affected = session.doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(statement.sql)) {
+                for (T entity : chunk) {
+                    statement.bind(ps, entity, session);
+                    ps.addBatch();
+                }
+                int sum = 0;
+                for (int count : ps.executeBatch()) {
+                    sum += Math.max(count, 0);
+                }
+                return sum;
+            }
+        });
+        // 영속성 컨텍스트/2차 캐시에 들고 있던 예전 상태를 버린다
+        for (T entity : chunk) {
+            Serializable id = statement.persister.getIdentifier(entity, session);
+            Object managed = session.getPersistenceContext().getEntity(new EntityKey(id, statement.persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+            em.getEntityManagerFactory().getCache().evict(statement.persister.getMappedClass(), id);
+        }
+        return affected;
+    }
+
+    private int batchSize() {
+        Integer sessionBatchSize = em.unwrap(Session.class).getJdbcBatchSize();
+        if (sessionBatchSize != null && sessionBatchSize > 0) {
+            return sessionBatchSize;
+        }
+        int batchSize = em.unwrap(SessionImplementor.class).getFactory().getSessionFactoryOptions().getJdbcBatchSize();
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    private static EntityPersister persister(SessionImplementor session, Class<?> entityClass) {
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityClass);
+        if (!(persister instanceof SingleTableEntityPersister) || persister.getEntityMetamodel().getSubclassEntityNames().size() > 1) {
+            throw new IllegalArgumentException("upsertAll은 상속 없는 단일 테이블 엔티티만 지원합니다: " + entityClass.getName());
+        }
+        if (!(persister.getIdentifierGenerator() instanceof Assigned)) {
+            throw new IllegalArgumentException("upsertAll은 id를 직접 넣는 엔티티만 지원합니다: " + entityClass.getName());
+        }
+        if (persister.isVersioned()) {
+            throw new IllegalArgumentException("upsertAll은 @Version 엔티티를 지원하지 않습니다: " + entityClass.getName());
+        }
+        return persister;
+    }
+
+    /**
+     * 엔티티 클래스별로 한번 만들어두는 MERGE 문과 바인딩 순서.
+     * 파라미터 순서 : on 절 id -> update set 컬럼들 -> insert id -> insert 컬럼들
+     */
+    private static final class UpsertStatement {
+        private final EntityPersister persister;
+        private final String sql;
+        private final int[] updateProperties;
+        private final int[] insertProperties;
+
+        private UpsertStatement(EntityPersister persister, String sql, int[] updateProperties, int[] insertProperties) {
+            this.persister = persister;
+            this.sql = sql;
+            this.updateProperties = updateProperties;
+            this.insertProperties = insertProperties;
+        }
+
+        static UpsertStatement of(EntityPersister entityPersister) {
+            SingleTableEntityPersister persister = (SingleTableEntityPersister) entityPersister;
+            List<Integer> updates = new ArrayList<>();
+            List<Integer> inserts = new ArrayList<>();
+            StringJoiner set = new StringJoiner(", ");
+            StringJoiner insertColumns = new StringJoiner(", ");
+            StringJoiner insertValues = new StringJoiner(", ");
+            String on = columnsEqualParameters(persister.getIdentifierColumnNames(), " and ");
+            for (String idColumn : persister.getIdentifierColumnNames()) {
+                insertColumns.add(idColumn);
+                insertValues.add("?");
+            }
+            for (int i = 0; i < persister.getPropertyNames().length; i++) {
+                String[] columns = persister.getPropertyColumnNames(i);
+                if (persister.getPropertyTypes()[i].isCollectionType() || columns.length == 0) {
+                    continue;
+                }
+                if (persister.getPropertyUpdateability()[i]) {
+                    updates.add(i);
+                    set.add(columnsEqualParameters(columns, ", "));
+                }
+                if (persister.getPropertyInsertability()[i]) {
+                    inserts.add(i);
+                    for (String column : columns) {
+                        insertColumns.add(column);
+                        insertValues.add("?");
+                    }
+                }
+            }
+            String sql = "merge into " + persister.getTableName() + " using (select 1) s on " + on
+                         + (updates.isEmpty() ? "" : " when matched then update set " + set)
+                         + " when not matched then insert (" + insertColumns + ") values (" + insertValues + ")";
+            return new UpsertStatement(persister, sql, toArray(updates), toArray(inserts));
+        }
+
+        void bind(PreparedStatement ps, Object entity, SessionImplementor session) throws SQLException {
+            Serializable id = persister.getIdentifier(entity, session);
+            Object[] values = persister.getPropertyValues(entity);
+            Type idType = persister.getIdentifierType();
+            Type[] types = persister.getPropertyTypes();
+            int index = 1;
+            idType.nullSafeSet(ps, id, index, session);
+            index += idType.getColumnSpan(session.getFactory());
+            for (int property : updateProperties) {
+                types[property].nullSafeSet(ps, values[property], index, session);
+                index += types[property].getColumnSpan(session.getFactory());
+            }
+            idType.nullSafeSet(ps, id, index, session);
+            index += idType.getColumnSpan(session.getFactory());
+            for (int property : insertProperties) {
+                types[property].nullSafeSet(ps, values[property], index, session);
+                index += types[property].getColumnSpan(session.getFactory());
+            }
+        }
+
+        private static String columnsEqualParameters(String[] columns, String delimiter) {
+            StringJoiner joiner = new StringJoiner(delimiter);
+            for (String column : columns) {
+                joiner.add(column + " = ?");
+            }
+            return joiner.toString();
+        }
+
+        private static int[] toArray(List<Integer> properties) {
+            return properties.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -4,5 +4,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.example.datajpa.entity.Item;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+// Item의 id는 String(외부에서 받은 키)이다. 대량 적재는 save 대신 persistAll/upsertAll (AssignedIdRepository)
+public interface ItemRepository extends JpaRepository<Item, String>, AssignedIdRepository<Item> {
 }
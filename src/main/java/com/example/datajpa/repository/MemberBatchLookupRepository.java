@@ -0,0 +1,18 @@
+package com.example.datajpa.repository;
+
+import java.util.List;
+
+import com.example.datajpa.dto.MemberDto;
+
+/**
+ * 여러 회원을 한번에 찾는 조회. /members/{id}를 반복 호출하는 대신 쓴다.
+ * 요청 목록은 lookup-chunk-size 개씩 잘라서 in (...) 으로 조회하고, 청크가 여러개면 repositoryExecutor에서 동시에 조회한다.
+ * 청크는 각자 읽기 전용 트랜잭션이라 호출한 쪽 트랜잭션에서 아직 커밋하지 않은 변경은 보이지 않는다.
+ * 결과는 요청한 키 순서대로 나오고, 같은 키를 여러번 넣어도 처음 나온 자리에 한번만 나온다. 없는 키는 빠진다.
+ */
+public interface MemberBatchLookupRepository {
+    List<MemberDto> findDtosByIds(List<Long> ids);
+
+    // 이름은 같은 회원이 여럿일 수 있어서, 같은 이름끼리는 id 순서로
+    List<MemberDto> findDtosByNames(List<String> names);
+}
@@ -0,0 +1,109 @@
+package com.example.datajpa.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.config.AsyncConfig;
+import com.example.datajpa.config.AsyncProperties;
+import com.example.datajpa.dto.MemberDto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : in 절 파라미터 개수가 요청마다 다르면 SQL 문자열이 매번 달라져서 쿼리 플랜 캐시, statement 캐시를 못 쓴다.
+ *   - 중복을 빼고 lookup-chunk-size 개씩 자른다. (DB마다 in 절/바인딩 파라미터 개수 제한도 있다. 오라클은 1000개)
+ *   - hibernate.query.in_clause_parameter_padding 으로 in (...) 파라미터 개수를 2의 거듭제곱으로 맞춘다. (마지막 값을 반복해서 채움)
+ *     100개를 요청하든 120개를 요청하든 in (?, ... 128개) 로 같은 SQL이 된다.
+ * 결과는 DTO(생성자 표현식)라서 청크마다 다른 영속성 컨텍스트에서 읽어도 지연로딩 걱정이 없다.
+ * 호출한 스레드는 청크가 끝나기를 기다린다. repositoryExecutor 안(@Async 메서드 등)에서 호출하지 말 것. (MemberParallelRepositoryImpl과 같은 이유)
+ */
+@Slf4j
+public class MemberBatchLookupRepositoryImpl implements MemberBatchLookupRepository {
+    private static final String MEMBER_DTO_QUERY =
+            "select new com.example.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t";
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor executor;
+    private final int chunkSize;
+
+    public MemberBatchLookupRepositoryImpl(EntityManager em, PlatformTransactionManager transactionManager,
+                                           @Qualifier(AsyncConfig.REPOSITORY_EXECUTOR) Executor executor,
+                                           AsyncProperties asyncProperties) {
+        this.em = em;
+        this.executor = executor;
+        this.chunkSize = asyncProperties.getLookupChunkSize();
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("datajpa.async.lookup-chunk-size는 1 이상이어야 합니다: " + chunkSize);
+        }
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public List<MemberDto> findDtosByIds(List<Long> ids) {
+        List<MemberDto> found = lookup(ids, chunk -> em.createQuery(MEMBER_DTO_QUERY + " where m.id in :ids", MemberDto.class)
+                                                       .setParameter("ids", chunk)
+                                                       .getResultList());
+        Map<Long, MemberDto> byId = found.stream().collect(Collectors.toMap(MemberDto::getId, Function.identity()));
+        return new LinkedHashSet<>(ids).stream()
+                                       .map(byId::get)
+                                       .filter(dto -> dto != null)
+                                       .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<MemberDto> findDtosByNames(List<String> names) {
+        List<MemberDto> found = lookup(names, chunk -> em.createQuery(MEMBER_DTO_QUERY + " where m.username in :names order by m.id", MemberDto.class)
+                                                         .setParameter("names", chunk)
+                                                         .getResultList());
+        Map<String, List<MemberDto>> byName = found.stream().collect(Collectors.groupingBy(MemberDto::getUsername));
+        return new LinkedHashSet<>(names).stream()
+                                         .flatMap(name -> byName.getOrDefault(name, List.of()).stream())
+                                         .collect(Collectors.toList());
+    }
+
+    private <K> List<MemberDto> lookup(Collection<K> keys, Function<List<K>, List<MemberDto>> query) {
+        List<List<K>> chunks = chunks(new ArrayList<>(new LinkedHashSet<>(keys)));
+        if (chunks.size() <= 1) { // 청크 하나면 다른 스레드로 넘기지 않는다
+            return chunks.isEmpty() ? new ArrayList<>() : readOnlyTransaction.execute(status -> query.apply(chunks.get(0)));
+        }
+        List<CompletableFuture<List<MemberDto>>> futures = new ArrayList<>();
+        for (List<K> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.apply(chunk)), executor));
+        }
+        List<MemberDto> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<MemberDto>> future : futures) {
+                results.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        log.debug("회원 일괄 조회 : 키 {}개, 청크 {}개", keys.size(), chunks.size());
+        return results;
+    }
+
+    private <K> List<List<K>> chunks(List<K> keys) {
+        List<List<K>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            chunks.add(keys.subList(from, Math.min(keys.size(), from + chunkSize)));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.datajpa.repository;
+
+import java.util.function.Consumer;
+
+import com.example.datajpa.dto.BulkUpdateResult;
+
+/**
+ * 청크 단위 벌크 수정/삭제. bulkUpdatePlus 처럼 한번에 전체를 update 하지 않고 PK 순서로 chunkSize 개씩 나눠서 실행한다.
+ * 트랜잭션 밖에서 호출하면 청크마다 커밋되어서 락을 오래 잡지 않는다. (트랜잭션 안에서 호출하면 그 트랜잭션에 참여)
+ * 영속성 컨텍스트와 2차 캐시는 전체를 비우지 않고 바뀐 회원만 내보낸다.
+ */
+public interface MemberBulkRepository {
+    // age 이상인 회원 나이 +1 (bulkUpdatePlus의 청크 버전). progress는 청크가 끝날 때마다 누적 결과로 호출된다.
+    BulkUpdateResult bulkAgePlusChunked(int age, int chunkSize, Consumer<BulkUpdateResult> progress);
+
+    // age 이상인 회원 삭제
+    BulkUpdateResult bulkDeleteByAgeChunked(int age, int chunkSize, Consumer<BulkUpdateResult> progress);
+}
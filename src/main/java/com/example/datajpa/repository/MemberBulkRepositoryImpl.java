@@ -0,0 +1,140 @@
+package com.example.datajpa.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.dto.BulkUpdateResult;
+import com.example.datajpa.entity.AuditTime;
+import com.example.datajpa.entity.Member;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : JPQL 벌크 연산(executeUpdate)을 쓰면 하이버네이트가 Member 2차 캐시 영역을 통째로 비우고,
+ * clearAutomatically는 영속성 컨텍스트를 통째로 비운다. 여기서는 JDBC로 직접 update/delete 하고, 바뀐 id만 골라서 캐시에서 내보낸다.
+ * 청크 하나의 흐름 :
+ *   1. flush (영속성 컨텍스트에 쌓인 변경을 먼저 DB에 반영)
+ *   2. 조건에 맞는 id를 PK 순서로 chunkSize 개 조회 (lastId 이후부터)
+ *   3. id in (...) + 같은 조건으로 update/delete (그 사이 바뀐 row는 조건에서 걸러진다)
+ *   4. 영속성 컨텍스트에서 해당 회원만 detach, 2차 캐시에서 해당 id만 evict (커밋 후 한번 더), 쿼리 캐시 비움
+ *   5. 커밋 후 username 인덱스(MemberUsernameIndex)에서 해당 회원들의 username을 버림
+ */
+@Slf4j
+public class MemberBulkRepositoryImpl implements MemberBulkRepository {
+    private static final String MEMBER_CONDITION = "age >= :age";
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberUsernameIndex usernameIndex;
+
+    public MemberBulkRepositoryImpl(EntityManager em, EntityManagerFactory emf, JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager, MemberUsernameIndex usernameIndex) {
+        this.em = em;
+        this.emf = emf;
+        this.usernameIndex = usernameIndex;
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager); // PROPAGATION_REQUIRED
+    }
+
+    @Override
+    public BulkUpdateResult bulkAgePlusChunked(int age, int chunkSize, Consumer<BulkUpdateResult> progress) {
+        return executeChunked("update member set age = age + 1, version = coalesce(version, 0) + 1, last_modified_date = :now where member_id in (:ids) and " + MEMBER_CONDITION,
+                              age, chunkSize, progress);
+    }
+
+    @Override
+    public BulkUpdateResult bulkDeleteByAgeChunked(int age, int chunkSize, Consumer<BulkUpdateResult> progress) {
+        return executeChunked("delete from member where member_id in (:ids) and " + MEMBER_CONDITION,
+                              age, chunkSize, progress);
+    }
+
+    private BulkUpdateResult executeChunked(String modifySql, int age, int chunkSize, Consumer<BulkUpdateResult> progress) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize는 1 이상이어야 합니다: " + chunkSize);
+        }
+        long start = System.currentTimeMillis();
+        BulkUpdateResult result = new BulkUpdateResult(0, 0, null, 0);
+        while (true) {
+            Long lastId = result.getLastId();
+            Chunk chunk = transactionTemplate.execute(status -> modifyChunk(modifySql, age, lastId, chunkSize));
+            if (chunk.ids.isEmpty()) {
+                break;
+            }
+            result = new BulkUpdateResult(result.getChunks() + 1, result.getAffectedRows() + chunk.affected,
+                                          chunk.ids.get(chunk.ids.size() - 1), System.currentTimeMillis() - start);
+            log.debug("벌크 작업 진행 : {}", result);
+            progress.accept(result);
+            if (chunk.ids.size() < chunkSize) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private Chunk modifyChunk(String modifySql, int age, Long lastId, int chunkSize) {
+        em.flush();
+        MapSqlParameterSource params = new MapSqlParameterSource("age", age).addValue("lastId", lastId == null ? Long.MIN_VALUE : lastId)
+                                                                            .addValue("limit", chunkSize)
+                                                                            .addValue("now", AuditTime.now());
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select member_id from member where member_id > :lastId and " + MEMBER_CONDITION + " order by member_id limit :limit",
+                params, Long.class);
+        if (ids.isEmpty()) {
+            return new Chunk(ids, 0);
+        }
+        int affected = jdbcTemplate.update(modifySql, params.addValue("ids", ids));
+        evict(ids);
+        return new Chunk(ids, affected);
+    }
+
+    private void evict(List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed); // 다음 조회 때 DB에서 새로 읽는다. 나머지 엔티티는 그대로 둔다
+            }
+        }
+        evictSecondLevelCache(ids);
+        // 커밋 전에 다른 트랜잭션이 옛날 값을 다시 캐시에 올릴 수 있어서 커밋 후에 한번 더 지운다
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evictSecondLevelCache(ids);
+                usernameIndex.evictIds(ids);
+            }
+        });
+    }
+
+    private void evictSecondLevelCache(List<Long> ids) {
+        ids.forEach(id -> emf.getCache().evict(Member.class, id));
+        // 쿼리 캐시(Member.findByUsername 등)는 어떤 결과에 어떤 회원이 들어있는지 모르기 때문에 쿼리 캐시만 비운다
+        emf.getCache().unwrap(org.hibernate.Cache.class).evictQueryRegions();
+    }
+
+    private static class Chunk {
+        private final List<Long> ids;
+        private final int affected;
+
+        Chunk(List<Long> ids, int affected) {
+            this.ids = ids;
+            this.affected = affected;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.datajpa.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+
+import com.example.datajpa.entity.Member;
+
+/**
+ * findAll(Example, Sort)와 결과는 같지만, 같은 모양(matcher + 값이 있는 속성 + 정렬)의 Example은 JPQL을 한번만 만들고 파라미터만 바꿔서 실행한다.
+ * 검색 API처럼 모양이 같은 Example 요청이 계속 들어올 때 쓴다.
+ */
+public interface MemberExampleRepository {
+    List<Member> findAllByExampleCached(Example<Member> example, Sort sort);
+}
@@ -0,0 +1,240 @@
+package com.example.datajpa.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.springframework.beans.PropertyAccessor;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import com.example.datajpa.entity.Member;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : findAll(Example)은 호출할 때마다 Criteria 트리를 새로 만들고, 하이버네이트가 그걸 다시 JPQL로 렌더링한 뒤에야 쿼리 플랜 캐시를 찾는다.
+ * 여기서는 probe를 한번 훑어서 (속성 경로, 비교 방식) 목록만 뽑고, 그 목록 + matcher + 정렬을 키로 JPQL 문자열을 캐싱한다.
+ * 같은 JPQL 문자열이면 하이버네이트 쿼리 플랜 캐시(hibernate.query.plan_cache_max_size)에서 파싱 결과를 그대로 꺼내기 때문에, 호출마다 남는 일은 값 바인딩뿐이다.
+ * 비교 규칙은 스프링 데이터 QBE(QueryByExamplePredicateBuilder)와 같다.
+ *   - 값이 null인 속성은 무시 (NullHandler.INCLUDE 면 is null)
+ *   - 문자열은 StringMatcher(EXACT/STARTING/ENDING/CONTAINING)와 ignoreCase를 따른다. REGEX는 지원하지 않는다.
+ *   - 연관관계(team 등)는 inner join 해서 그 엔티티의 속성을 비교한다. 임베디드 값 타입은 join 없이 m.address.city 처럼 경로로 비교한다. 컬렉션은 무시한다.
+ */
+@Slf4j
+public class MemberExampleRepositoryImpl implements MemberExampleRepository {
+    private static final int MAX_SHAPES = 1000; // 모양이 계속 달라지는 요청이 와도 캐시가 끝없이 커지지 않게
+    private static final EscapeCharacter ESCAPE = EscapeCharacter.DEFAULT;
+
+    private final EntityManager em;
+    private final Map<Shape, String> compiledQueries = new ConcurrentHashMap<>();
+
+    public MemberExampleRepositoryImpl(EntityManager em) {
+        this.em = em;
+    }
+
+    @Override
+    public List<Member> findAllByExampleCached(Example<Member> example, Sort sort) {
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        List<Condition> conditions = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        collect(em.getMetamodel().entity(Member.class), example.getProbe(), "", List.of(), accessor, conditions, values,
+                Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        Shape shape = new Shape(example.getMatcher(), conditions, sort);
+        String jpql = compiledQueries.get(shape);
+        if (jpql == null) {
+            jpql = compile(shape);
+            if (compiledQueries.size() < MAX_SHAPES) {
+                compiledQueries.put(shape, jpql);
+            }
+            log.debug("QBE 쿼리 컴파일 : {}", jpql);
+        }
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class);
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter("p" + i, values.get(i));
+        }
+        return query.getResultList();
+    }
+
+    // associations : prefix의 각 경로가 연관관계(join 대상)인지, 임베디드 값 타입인지
+    private void collect(ManagedType<?> type, Object probe, String prefix, List<Boolean> associations, ExampleMatcherAccessor accessor,
+                         List<Condition> conditions, List<Object> values, Set<Object> visited) {
+        if (!visited.add(probe)) {
+            return; // 양방향 연관관계로 다시 돌아온 경우
+        }
+        PropertyAccessor wrapper = PropertyAccessorFactory.forDirectFieldAccess(probe);
+        for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+            String path = prefix + attribute.getName();
+            if (attribute.isVersion() || accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Optional<Object> value = accessor.getValueTransformerForPath(path)
+                                             .apply(Optional.ofNullable(wrapper.getPropertyValue(attribute.getName())));
+            if (!value.isPresent()) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    conditions.add(new Condition(path, associations, Kind.IS_NULL, false));
+                }
+                continue;
+            }
+            if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED
+                || attribute.isAssociation()) {
+                List<Boolean> nested = new ArrayList<>(associations);
+                nested.add(attribute.isAssociation());
+                collect((ManagedType<?>) attribute.getType(), value.get(), path + ".", nested, accessor, conditions, values, visited);
+                continue;
+            }
+            if (!(value.get() instanceof String)) {
+                conditions.add(new Condition(path, associations, Kind.EQUALS, false));
+                values.add(value.get());
+                continue;
+            }
+            boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+            String string = ignoreCase ? ((String) value.get()).toLowerCase() : (String) value.get();
+            switch (accessor.getStringMatcherForPath(path)) {
+                case DEFAULT:
+                case EXACT:
+                    conditions.add(new Condition(path, associations, Kind.EQUALS, ignoreCase));
+                    values.add(string);
+                    break;
+                case STARTING:
+                    conditions.add(new Condition(path, associations, Kind.LIKE, ignoreCase));
+                    values.add(ESCAPE.escape(string) + "%");
+                    break;
+                case ENDING:
+                    conditions.add(new Condition(path, associations, Kind.LIKE, ignoreCase));
+                    values.add("%" + ESCAPE.escape(string));
+                    break;
+                case CONTAINING:
+                    conditions.add(new Condition(path, associations, Kind.LIKE, ignoreCase));
+                    values.add("%" + ESCAPE.escape(string) + "%");
+                    break;
+                default:
+                    throw new IllegalArgumentException("지원하지 않는 StringMatcher : " + accessor.getStringMatcherForPath(path));
+            }
+        }
+    }
+
+    private String compile(Shape shape) {
+        Set<String> joins = new LinkedHashSet<>();
+        List<String> predicates = new ArrayList<>();
+        for (int i = 0, parameter = 0; i < shape.conditions.size(); i++) {
+            Condition condition = shape.conditions.get(i);
+            String expression = expression(condition, joins);
+            if (condition.ignoreCase) {
+                expression = "lower(" + expression + ")";
+            }
+            switch (condition.kind) {
+                case IS_NULL:
+                    predicates.add(expression + " is null");
+                    break;
+                case LIKE:
+                    predicates.add(expression + " like :p" + parameter++ + " escape '" + ESCAPE.getEscapeCharacter() + "'");
+                    break;
+                default:
+                    predicates.add(expression + " = :p" + parameter++);
+            }
+        }
+        StringBuilder jpql = new StringBuilder("select m from Member m");
+        joins.forEach(join -> jpql.append(' ').append(join));
+        if (!predicates.isEmpty()) {
+            String operator = shape.matcher.isAllMatching() ? " and " : " or ";
+            jpql.append(" where ").append(String.join(operator, predicates));
+        }
+        return QueryUtils.applySorting(jpql.toString(), shape.sort, "m");
+    }
+
+    // "team.name" -> join m.team m_team 을 추가하고 m_team.name
+    // 임베디드는 join 할 수 없어서 경로만 이어 붙인다. "address.city" -> m.address.city
+    private static String expression(Condition condition, Set<String> joins) {
+        String[] segments = condition.path.split("\\.");
+        String alias = "m";
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (condition.associations.get(i)) {
+                String joinAlias = alias.replace('.', '_') + "_" + segments[i];
+                joins.add("join " + alias + "." + segments[i] + " " + joinAlias);
+                alias = joinAlias;
+            } else {
+                alias = alias + "." + segments[i];
+            }
+        }
+        return alias + "." + segments[segments.length - 1];
+    }
+
+    private enum Kind {
+        EQUALS, LIKE, IS_NULL
+    }
+
+    private static class Condition {
+        private final String path;
+        private final List<Boolean> associations; // path의 마지막을 뺀 각 경로가 연관관계인지
+        private final Kind kind;
+        private final boolean ignoreCase;
+
+        Condition(String path, List<Boolean> associations, Kind kind, boolean ignoreCase) {
+            this.path = path;
+            this.associations = associations;
+            this.kind = kind;
+            this.ignoreCase = ignoreCase;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Condition)) {
+                return false;
+            }
+            Condition other = (Condition) o;
+            return path.equals(other.path) && associations.equals(other.associations) && kind == other.kind && ignoreCase == other.ignoreCase;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, associations, kind, ignoreCase);
+        }
+    }
+
+    // 캐시 키 : 값은 빼고 쿼리 모양을 정하는 것만
+    private static class Shape {
+        private final ExampleMatcher matcher;
+        private final List<Condition> conditions;
+        private final Sort sort;
+
+        Shape(ExampleMatcher matcher, List<Condition> conditions, Sort sort) {
+            this.matcher = matcher;
+            this.conditions = conditions;
+            this.sort = sort;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Shape)) {
+                return false;
+            }
+            Shape other = (Shape) o;
+            return matcher.equals(other.matcher) && conditions.equals(other.conditions) && sort.equals(other.sort);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(matcher, conditions, sort);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import javax.persistence.PersistenceContext;
 
 import org.springframework.stereotype.Repository;
 
+import com.example.datajpa.entity.AuditTime;
 import com.example.datajpa.entity.Member;
 
 @Repository
@@ -74,8 +75,9 @@ public class MemberJpaRepository {
 
     // 순수 JPA 벌크성 쿼리
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        return em.createQuery("update Member m set m.age = m.age + 1, m.version = coalesce(m.version, 0) + 1, m.lastModifiedDate = :now where m.age >= :age")
                  .setParameter("age", age)
+                 .setParameter("now", AuditTime.now())
                  .executeUpdate(); // 벌크 업데이틀르 할 때는 executeUpdate 를 한다.
     }
 }
@@ -0,0 +1,18 @@
+package com.example.datajpa.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.datajpa.entity.Member;
+
+/**
+ * 큰 테이블을 훑는 분석용 검색. findAll(spec, sort)와 결과는 같지만, 회원 id 범위를 나눠서(partition)
+ * 파티션마다 다른 커넥션, 다른 읽기 전용 트랜잭션으로 동시에 조회하고 정렬 순서대로 합친다.
+ * 파티션은 각자 트랜잭션이라 호출한 쪽 트랜잭션에서 아직 커밋하지 않은 변경은 보이지 않고, 결과 회원은 준영속 상태다.
+ */
+public interface MemberParallelRepository {
+    // limit 개까지만 (전체를 원하면 Integer.MAX_VALUE)
+    List<Member> findAllParallel(Specification<Member> spec, Sort sort, int limit);
+}
@@ -0,0 +1,187 @@
+package com.example.datajpa.repository;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.config.AsyncConfig;
+import com.example.datajpa.config.AsyncProperties;
+import com.example.datajpa.entity.Member;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : 흐름
+ *   1. 회원 id의 min, max를 구한다 (PK 인덱스만 보면 된다)
+ *   2. [min, max]를 partitions 개의 구간으로 나눠서, 구간마다 spec + "id between" 조건 + 같은 정렬 + limit 으로 repositoryExecutor에서 조회
+ *      (전체 상위 limit 개는 반드시 어느 파티션의 상위 limit 개 안에 있다)
+ *   3. 파티션 결과는 각자 정렬되어 있으니 k-way merge로 합치고 limit 개에서 멈춘다
+ * 정렬이 같은 값끼리는 id 순서로 정한다. 그래야 파티션을 어떻게 나눠도 결과 순서가 같다.
+ * 합칠 때는 자바에서 비교하기 때문에 null은 DB(H2)처럼 가장 작은 값으로 본다. (Sort.Order에 nullHandling을 주면 그걸 따른다)
+ *
+ * 호출한 스레드는 파티션이 끝나기를 기다린다. repositoryExecutor 안(@Async 메서드 등)에서 호출하면 스레드 풀이 모자라 멈출 수 있으니 밖에서 호출할 것.
+ */
+@Slf4j
+public class MemberParallelRepositoryImpl implements MemberParallelRepository {
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor executor;
+    private final int partitions;
+    private final int minPartitionSize;
+
+    public MemberParallelRepositoryImpl(EntityManager em, PlatformTransactionManager transactionManager,
+                                        @Qualifier(AsyncConfig.REPOSITORY_EXECUTOR) Executor executor,
+                                        AsyncProperties asyncProperties) {
+        this.em = em;
+        this.executor = executor;
+        this.partitions = asyncProperties.getSpecPartitions();
+        this.minPartitionSize = asyncProperties.getSpecMinPartitionSize();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true); // 라우팅이 켜져 있으면 replica에서 읽는다
+    }
+
+    @Override
+    public List<Member> findAllParallel(Specification<Member> spec, Sort sort, int limit) {
+        Sort mergeSort = sort.and(Sort.by("id"));
+        Object[] range = readOnlyTransaction.execute(status -> em.createQuery("select min(m.id), max(m.id) from Member m", Object[].class)
+                                                                  .getSingleResult());
+        if (range == null || range[0] == null) {
+            return new ArrayList<>();
+        }
+        long min = (Long) range[0];
+        long max = (Long) range[1];
+        int count = (int) Math.max(1, Math.min(partitions, (max - min + 1) / minPartitionSize));
+        long step = (max - min + count) / count; // 올림
+
+        List<Sort.Order> orders = mergeSort.toList();
+        List<CompletableFuture<List<Row>>> futures = new ArrayList<>();
+        for (long from = min; from <= max; from += step) {
+            long lo = from;
+            long hi = Math.min(max, from + step - 1);
+            futures.add(CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> findRange(spec, mergeSort, orders, limit, lo, hi)),
+                                                      executor));
+        }
+        List<List<Row>> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<Row>> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        log.debug("병렬 spec 조회 : id {}~{}, 파티션 {}개", min, max, futures.size());
+        return merge(results, comparator(orders), limit);
+    }
+
+    private List<Row> findRange(Specification<Member> spec, Sort sort, List<Sort.Order> orders, int limit, long lo, long hi) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Member> query = builder.createQuery(Member.class);
+        Root<Member> root = query.from(Member.class);
+        Predicate inRange = builder.between(root.get("id"), lo, hi);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, builder);
+        query.select(root)
+             .where(predicate == null ? inRange : builder.and(inRange, predicate))
+             .orderBy(toOrders(sort, root, builder));
+        TypedQuery<Member> typedQuery = em.createQuery(query);
+        if (limit < Integer.MAX_VALUE) {
+            typedQuery.setMaxResults(limit);
+        }
+        // 정렬 값은 트랜잭션 안에서 미리 꺼내둔다. (team.name 처럼 지연로딩을 타는 경로도 있고, 비교할 때마다 꺼내면 느리다)
+        List<Row> rows = new ArrayList<>();
+        for (Member member : typedQuery.getResultList()) {
+            Object[] keys = new Object[orders.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = propertyValue(member, orders.get(i).getProperty());
+            }
+            rows.add(new Row(member, keys));
+        }
+        return rows;
+    }
+
+    private static List<Member> merge(List<List<Row>> sortedLists, Comparator<Row> comparator, int limit) {
+        // 큐에는 {파티션 번호, 파티션 안 위치}를 넣고 각 파티션의 현재 row끼리 비교한다
+        PriorityQueue<int[]> heads = new PriorityQueue<>(
+                (a, b) -> comparator.compare(sortedLists.get(a[0]).get(a[1]), sortedLists.get(b[0]).get(b[1])));
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new int[] { i, 0 });
+            }
+        }
+        List<Member> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<Row> partition = sortedLists.get(head[0]);
+            merged.add(partition.get(head[1]).member);
+            if (head[1] + 1 < partition.size()) {
+                heads.add(new int[] { head[0], head[1] + 1 });
+            }
+        }
+        return merged;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Comparator<Row> comparator(List<Sort.Order> orders) {
+        Comparator<Row> comparator = (a, b) -> 0;
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            Comparator<Comparable> values = Comparator.naturalOrder();
+            if (order.isIgnoreCase()) {
+                values = Comparator.comparing(value -> value.toString().toLowerCase());
+            }
+            if (order.isDescending()) {
+                values = values.reversed();
+            }
+            boolean nullsFirst = order.getNullHandling() == Sort.NullHandling.NATIVE
+                                 ? order.isAscending()
+                                 : order.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+            values = nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+            int index = i;
+            comparator = comparator.thenComparing(row -> (Comparable) row.keys[index], values);
+        }
+        return comparator;
+    }
+
+    // "team.name" 같은 중첩 경로도 된다. 중간이 null 이면 null
+    private static Object propertyValue(Member member, String property) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(member);
+        wrapper.setAutoGrowNestedPaths(false);
+        try {
+            return wrapper.getPropertyValue(property);
+        } catch (NullValueInNestedPathException e) {
+            return null;
+        }
+    }
+
+    private static class Row {
+        private final Member member;
+        private final Object[] keys;
+
+        Row(Member member, Object[] keys) {
+            this.member = member;
+            this.keys = keys;
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package com.example.datajpa.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.dto.MemberVersion;
 import com.example.datajpa.entity.Member;
 
 import lombok.RequiredArgsConstructor;
@@ -14,10 +24,63 @@ import lombok.RequiredArgsConstructor;
 @Repository
 @RequiredArgsConstructor
 public class MemberQueryRepository {
+    private static final String MEMBER_DTO_QUERY =
+            "select new com.example.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t";
+    private static final String MEMBER_VERSION_QUERY =
+            "select new com.example.datajpa.dto.MemberVersion(m.id, m.version, m.lastModifiedDate) from Member m";
 
     private final EntityManager em;
+    private final PageTotalCounter pageTotalCounter;
 
     List<Member> findAllMembers() {
         return em.createQuery("select m from Member m").getResultList();
     }
+
+    /**
+     * @implNote : 화면 목록용 조회 모델. 엔티티를 거치지 않고 생성자 표현식으로 바로 MemberDto를 만든다.
+     * findAll(pageable).map(MemberDto::new) 와 비교하면
+     *   - 영속성 컨텍스트에 엔티티가 하나도 안 올라간다 (dirty checking 스냅샷, 엔티티 키, team 프록시 없음)
+     *   - 감사 컬럼 등 안 쓰는 컬럼을 읽지 않고, team.name은 조인으로 같이 가져온다 (팀 이름 때문에 쿼리가 더 나가지 않음)
+     * 정렬은 Member 속성 기준(id, username, age ...)만 된다.
+     */
+    @Transactional(readOnly = true)
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable, PageCountMode countMode) {
+        List<MemberDto> content = em.createQuery(QueryUtils.applySorting(MEMBER_DTO_QUERY, pageable.getSort(), "m"), MemberDto.class)
+                                    .setFirstResult((int) pageable.getOffset())
+                                    .setMaxResults(pageable.getPageSize())
+                                    .getResultList();
+        return pageTotalCounter.page(content, pageable, countMode, "Member.findAll",
+                () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult(),
+                () -> MemberRepositoryCustomImpl.estimateMemberCount(em));
+    }
+
+    /**
+     * @implNote : 조건부 GET용 버전 조회. 회원 엔티티를 만들지 않고 id, version, 수정일만 읽는다. (PK 조회 한번)
+     * JPQL 프로젝션이라 2차 캐시를 거치지 않고 항상 DB를 본다. (캐시가 stale 하면 304를 잘못 줄 수 있다)
+     */
+    @Transactional(readOnly = true)
+    public Optional<MemberVersion> findVersionById(Long id) {
+        return em.createQuery(MEMBER_VERSION_QUERY + " where m.id = :id", MemberVersion.class)
+                 .setParameter("id", id)
+                 .getResultStream()
+                 .findFirst();
+    }
+
+    // 페이지 단위 버전 조회. 정렬/페이징/totalCount 방식은 실제 목록 조회와 같아야 같은 페이지를 가리킨다.
+    // 정렬은 findAll(pageable)처럼 Criteria + QueryUtils.toOrders로 만든다. sort=team.name 이면 left join이라 팀 없는 회원도 빠지지 않는다.
+    @Transactional(readOnly = true)
+    public Page<MemberVersion> findVersionPage(Pageable pageable, PageCountMode countMode) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<MemberVersion> query = cb.createQuery(MemberVersion.class);
+        Root<Member> m = query.from(Member.class);
+        query.select(cb.construct(MemberVersion.class, m.get("id"), m.get("version"), m.get("lastModifiedDate")))
+             .orderBy(QueryUtils.toOrders(pageable.getSort(), m, cb));
+        List<MemberVersion> content = em.createQuery(query)
+                                        .setFirstResult((int) pageable.getOffset())
+                                        .setMaxResults(pageable.getPageSize())
+                                        .getResultList();
+        return pageTotalCounter.page(content, pageable, countMode, "Member.findAll",
+                () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult(),
+                () -> MemberRepositoryCustomImpl.estimateMemberCount(em));
+    }
 }
@@ -3,6 +3,8 @@ package com.example.datajpa.repository;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
@@ -18,11 +20,17 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.datajpa.config.AsyncConfig;
 import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.dto.NestedClosedProjectionsDto;
+import com.example.datajpa.dto.UsernameAgeDto;
 import com.example.datajpa.entity.Member;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberBulkRepository, MemberParallelRepository,
+        MemberExampleRepository, MemberBatchLookupRepository, JpaSpecificationExecutor<Member> {
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
     List<Member> findTop3HelloBy(); // 이건 전체 조회(By 뒤에 아무것도 없어서)
@@ -47,10 +55,16 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     //Dto로 조회할때는 new 생성자로 적는 것처럼 패키지명까지 모두 적어줘야 한다.
     //이게 jpql이 제공하는 문법이고, 이렇게하면 Dto로 받을 수 있습니다.
+    @Transactional(readOnly = true) // 라우팅이 켜져 있으면 replica에서 읽는다
     @Query("select new com.example.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    // 컬렉션 파라미터 바인딩!! in 절로 들어간다.
+    @Transactional(readOnly = true)
+    @Query("select new com.example.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t where m.username = :username")
+    List<MemberDto> findMemberDtoByUsername(@Param("username") String username);
+
+    // 컬렉션 파라미터 바인딩!! in 절로 들어간다. (in_clause_parameter_padding : 개수를 2의 거듭제곱으로 맞춤)
+    // 개수가 아주 많을 수 있으면 청크로 나눠서 조회하는 findDtosByNames(MemberBatchLookupRepository) 참고
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
 
@@ -99,9 +113,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     List<Member> findTop3ByAgeOrderByUsernameDesc(int age);
 
-    // 벌크 업데이트 , clearAutomatically 옵션을 넣어주면, 벌크 업데이트 후 영속 컨텍스트를 비워주는 작업을 자동으로 해준다.
+    // 벌크 업데이트 , 대량이라면 청크로 나눠서 하는 bulkAgePlusChunked(MemberBulkRepository) 참고
+    // clearAutomatically 옵션을 넣어주면, 벌크 업데이트 후 영속 컨텍스트를 비워주는 작업을 자동으로 해준다.
     @Modifying(clearAutomatically = true) // 이게 꼭 필요함 (executeUpdate 처럼, 벌크성 업데이트를 위함)
-    @Query("update Member m set m.age = m.age +1 where m.age >= :age")
+    // 벌크 연산은 @Version, 감사 컬럼(수정일)을 안 채워줘서 직접 올린다. 수정일은 ETag/Last-Modified(조건부 GET)에 쓰인다
+    @Query("update Member m set m.age = m.age +1, m.version = coalesce(m.version, 0) + 1, "
+           + "m.lastModifiedDate = :#{T(com.example.datajpa.entity.AuditTime).now()} where m.age >= :age")
     int bulkUpdatePlus(@Param("age") int age);
 
     @Override
@@ -118,12 +135,18 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph("Member.all")
     List<Member> findNamedEntityGraphByUsername(@Param("username") String username);
 
+    @Transactional(readOnly = true)
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Member findReadOnlyByUsername(String username);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(@Param("username") String username);
 
+    // select ... for update : 트랜잭션이 끝날 때까지 다른 쓰기를 막는다 (낙관적 락 + 재시도와 비교는 MemberService 참고)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select m from Member m where m.id = :id")
+    Optional<Member> findLockById(@Param("id") Long id);
+
     List<UsernameOnly> findProjectionsByUsername(@Param("username") String username); // 반환값에 인터페이스를 넣으면 프록시로 값을 얻어올 수 있다. (Projections)
 
     // 클래스로 하면 프록시가 필요 없을 것이다. 구체적인 클래스에 값을 매핑하는 방식이니!
@@ -132,6 +155,16 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     // 쿼리는 동일한데, 가져오는 결과값(프로젝션 하는 값)이 다를 때 클래스를 넘겨주며 해결할 수 있다.
     <T> List<T> findGenericProjectionsByUsername(@Param("username") String username, Class<T> type); // 제네릭으로도 가능하다. username 조건으로 가져오고 싶은 데이터 형태를 지정할 때 타입만 넣어주면 된다.
 
+    // 중첩 프로젝션을 클래스로 : 조인한 team은 name 컬럼만 가져온다. (NestedClosedProjections 주석의 쿼리와 비교)
+    @Transactional(readOnly = true)
+    @Query("select new com.example.datajpa.dto.NestedClosedProjectionsDto(m.username, t.name) from Member m left join m.team t where m.username = :username")
+    List<NestedClosedProjectionsDto> findNestedProjectionsByUsername(@Param("username") String username);
+
+    // Open Projection(UsernameOnly)을 클래스로 : 엔티티 전체 대신 username, age만 가져와서 생성자에서 한번만 조합한다.
+    @Transactional(readOnly = true)
+    @Query("select new com.example.datajpa.dto.UsernameAgeDto(m.username, m.age) from Member m where m.username = :username")
+    List<UsernameAgeDto> findUsernameAgeByUsername(@Param("username") String username);
+
     // 네이티브 쿼리
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
@@ -151,9 +184,41 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      */
 
     // 근데 최근에 Projections가 들어왔음. 이게 네이티브 쿼리의 제약을 많이 해결해줌
+    @Transactional(readOnly = true)
     @Query(value = "select m.member_id as id, m.username, t.name as teamName from member m left join team t",
             countQuery = "select count(*) from member",
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
 
+    /**
+     * 비동기 조회 : 호출하면 바로 CompletableFuture를 돌려받고, 쿼리는 repositoryExecutor(AsyncConfig)에서 실행된다.
+     * 트랜잭션은 호출한 쪽 트랜잭션에 참여하지 않고 실행되는 스레드에서 새로 연다. (@Async가 트랜잭션보다 먼저 적용됨)
+     * 그래서 호출한 쪽에서 아직 커밋하지 않은 데이터는 보이지 않고, 반환된 엔티티는 준영속 상태라 지연로딩도 안된다.
+     */
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @Transactional(readOnly = true)
+    @Query("select new com.example.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t")
+    CompletableFuture<List<MemberDto>> findMemberDtoAsync(Pageable pageable);
+
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @Transactional(readOnly = true)
+    @Query(value = "select m from Member m", countQuery = "select count(m) from Member m")
+    CompletableFuture<Page<Member>> findAllAsync(Pageable pageable);
+
+    /**
+     * 전체 회원 스트리밍 조회 (export용)
+     * findAll()은 전체를 List로 올리고 영속성 컨텍스트에도 다 쌓이지만, Stream은 forward-only 커서로 한 row씩 읽는다.
+     * - fetchSize : JDBC 드라이버가 한번에 가져오는 row 수
+     * - readOnly : 스냅샷을 안 뜸 / cacheable false : 쿼리 캐시에 안 올림
+     * DTO로 바로 받아서 영속성 컨텍스트에 엔티티가 아예 안 쌓이니 중간중간 detach할 필요도 없다.
+     * 반드시 트랜잭션 안에서 쓰고, 다 쓰면 close 해줘야 한다. (try-with-resources)
+     */
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheable", value = "false")
+    })
+    @Query("select new com.example.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t order by m.id")
+    Stream<MemberDto> streamAllMemberDto();
+
 }
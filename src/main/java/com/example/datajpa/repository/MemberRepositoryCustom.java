@@ -2,9 +2,29 @@ package com.example.datajpa.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.example.datajpa.dto.KeysetWindow;
+import com.example.datajpa.dto.MemberCursor;
+import com.example.datajpa.dto.MemberDto;
 import com.example.datajpa.entity.Member;
 
 // Spring-Data-Jpa가 아니라 직접 구현한 것을 쓰고 싶을 때
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    // 키셋(seek) 페이징 : offset 대신 "마지막으로 본 row 다음부터" 가져온다. 몇 페이지를 넘기든 쿼리 비용이 같다.
+    KeysetWindow<MemberDto> findMemberWindow(MemberCursor cursor, int size);
+
+    // 대량 저장 : batchSize 단위로 JDBC 배치 insert + flush/clear 해서 영속성 컨텍스트가 계속 커지지 않게 한다.
+    int saveAllBatched(Iterable<Member> members, int batchSize);
+
+    // totalCount를 구하는 방식을 고를 수 있는 페이징 (PageCountMode 참고)
+    Page<Member> findAllMembers(Pageable pageable, PageCountMode countMode);
+
+    Page<Member> findPageByAge(int age, Pageable pageable, PageCountMode countMode);
+
+    // findByUsername과 결과는 같지만 username -> id는 메모리 인덱스(MemberUsernameIndex), 회원은 2차 캐시에서 꺼낸다
+    List<Member> findByUsernameCached(String username);
 }
@@ -1,9 +1,31 @@
 package com.example.datajpa.repository;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.datajpa.dto.KeysetWindow;
+import com.example.datajpa.dto.MemberCursor;
+import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.dto.MemberSortKey;
 import com.example.datajpa.entity.Member;
 
 import lombok.RequiredArgsConstructor;
@@ -12,9 +34,207 @@ import lombok.RequiredArgsConstructor;
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom { // 규칙 : MemberRepository + Impl (Implaaaaaaaaaaaa 인식 못함)
 
     private final EntityManager em;
+    private final PageTotalCounter pageTotalCounter;
+    private final MemberUsernameIndex usernameIndex;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m").getResultList();
     }
+
+    /**
+     * @implNote : offset 페이징은 앞 페이지의 row를 전부 읽고 버린 뒤에야 원하는 row를 읽는다. (page 10,000 이면 10만건을 읽고 버림)
+     * 키셋 페이징은 where 절로 "마지막 row 다음"을 바로 찾아가기 때문에 몇 번째 페이지든 비용이 같다.
+     *     where m.username > :lastValue or (m.username = :lastValue and m.id > :lastId)
+     *     order by m.username, m.id
+     * username처럼 null이 될 수 있는 정렬키는 null을 오름차순이면 맨 뒤(nulls last), 내림차순이면 맨 앞(nulls first)에 두고
+     * null 구간은 "is null and m.id > :lastId" 로 따로 찾아간다. (null은 = 이나 > 로 비교되지 않아서 그냥 두면 건너뛴다)
+     * 다음 페이지 존재 여부는 size + 1 개를 가져와서 판단한다. (Slice와 같은 방식, count 쿼리 없음)
+     */
+    @Override
+    public KeysetWindow<MemberDto> findMemberWindow(MemberCursor cursor, int size) {
+        MemberSortKey sortKey = cursor.getSortKey();
+        boolean asc = cursor.getDirection() == Direction.ASC;
+        String property = "m." + sortKey.getProperty();
+        String op = asc ? ">" : "<";
+        String order = asc ? "asc" : "desc";
+
+        StringBuilder jpql = new StringBuilder("select m.id, m.username, t.name, ").append(property)
+                .append(" from Member m left join m.team t");
+        boolean afterNull = !cursor.isFirst() && cursor.getLastValue() == null;
+        if (!cursor.isFirst()) {
+            if (sortKey == MemberSortKey.ID) {
+                jpql.append(" where m.id ").append(op).append(" :lastId");
+            } else if (afterNull) {
+                jpql.append(" where (").append(property).append(" is null and m.id ").append(op).append(" :lastId)");
+                if (!asc) {
+                    jpql.append(" or ").append(property).append(" is not null"); // nulls first : null 다음은 값이 있는 row
+                }
+            } else {
+                jpql.append(" where ").append(property).append(' ').append(op).append(" :lastValue")
+                    .append(" or (").append(property).append(" = :lastValue and m.id ").append(op).append(" :lastId)");
+                if (asc && sortKey.isNullable()) {
+                    jpql.append(" or ").append(property).append(" is null"); // nulls last : 값이 있는 row 다음은 null
+                }
+            }
+        }
+        jpql.append(" order by ");
+        if (sortKey != MemberSortKey.ID) {
+            jpql.append(property).append(' ').append(order);
+            if (sortKey.isNullable()) {
+                jpql.append(asc ? " nulls last" : " nulls first");
+            }
+            jpql.append(", ");
+        }
+        jpql.append("m.id ").append(order);
+
+        TypedQuery<Object[]> query = em.createQuery(jpql.toString(), Object[].class)
+                                       .setMaxResults(size + 1);
+        if (!cursor.isFirst()) {
+            query.setParameter("lastId", cursor.getLastId());
+            if (sortKey != MemberSortKey.ID && !afterNull) {
+                query.setParameter("lastValue", sortKey.parse(cursor.getLastValue()));
+            }
+        }
+
+        List<Object[]> rows = query.getResultList();
+        boolean hasNext = rows.size() > size;
+        List<MemberDto> content = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            Object[] row = rows.get(i);
+            content.add(new MemberDto((Long) row[0], (String) row[1], (String) row[2]));
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = rows.get(size - 1);
+            nextCursor = MemberCursor.after(sortKey, cursor.getDirection(), last[3], (Long) last[0]).encode();
+        }
+        return new KeysetWindow<>(content, size, hasNext, nextCursor);
+    }
+
+    /**
+     * @implNote : memberRepository.save()를 1000번 부르면 insert 1000번 + 영속성 컨텍스트에 1000개가 쌓인다.
+     * 여기서는 batchSize 마다 flush() 해서 insert를 JDBC 배치로 한번에 보내고, clear() 해서 영속성 컨텍스트를 비운다.
+     * 그래서 몇 건을 넣든 메모리 사용량이 일정하다. (id는 pooled 시퀀스라서 allocationSize 마다 한번만 조회)
+     * 주의 : clear()를 하기 때문에 같은 트랜잭션에서 이전에 조회한 엔티티들도 준영속 상태가 된다.
+     */
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize는 1 이상이어야 합니다: " + batchSize);
+        }
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            int count = 0;
+            for (Member member : members) {
+                em.persist(member);
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+            return count;
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+
+    @Override
+    public Page<Member> findAllMembers(Pageable pageable, PageCountMode countMode) {
+        List<Member> content = em.createQuery(QueryUtils.applySorting("select m from Member m", pageable.getSort(), "m"), Member.class)
+                                 .setFirstResult((int) pageable.getOffset())
+                                 .setMaxResults(pageable.getPageSize())
+                                 .getResultList();
+        return pageTotalCounter.page(content, pageable, countMode, "Member.findAll",
+                () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult(),
+                this::estimateMemberCount);
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable, PageCountMode countMode) {
+        List<Member> content = em.createQuery(QueryUtils.applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m"), Member.class)
+                                 .setParameter("age", age)
+                                 .setFirstResult((int) pageable.getOffset())
+                                 .setMaxResults(pageable.getPageSize())
+                                 .getResultList();
+        LongSupplier exactCount = () -> em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                                          .setParameter("age", age)
+                                          .getSingleResult();
+        // 조건이 붙은 쿼리는 테이블 전체 추정치를 쓸 수 없어서 ESTIMATED도 캐시된 정확한 값으로 대신한다.
+        PageCountMode mode = countMode == PageCountMode.ESTIMATED ? PageCountMode.CACHED : countMode;
+        return pageTotalCounter.page(content, pageable, mode, "Member.findByAge:" + age, exactCount, exactCount);
+    }
+
+    /**
+     * @implNote : count(*) 대신 DB가 들고 있는 통계 정보(row 수 추정치)를 읽는다. 테이블을 스캔하지 않아서 크기와 상관없이 빠르다.
+     * 통계를 어디서 읽는지는 DB마다 달라서 방언(Dialect)으로 고른다. 모르는 DB이거나 아직 통계가 없으면 정확한 count로 대신한다.
+     */
+    private long estimateMemberCount() {
+        return estimateMemberCount(em);
+    }
+
+    static long estimateMemberCount(EntityManager em) {
+        Dialect dialect = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        String estimateQuery = estimateQuery(dialect);
+        Number estimate = estimateQuery == null ? null
+                : (Number) em.createNativeQuery(estimateQuery).getResultList().stream().findFirst().orElse(null);
+        if (estimate == null || estimate.longValue() < 0) { // PostgreSQL은 ANALYZE 전이면 -1
+            return em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+        }
+        return estimate.longValue();
+    }
+
+    private static String estimateQuery(Dialect dialect) {
+        if (dialect instanceof H2Dialect) {
+            return "select row_count_estimate from information_schema.tables where table_schema = schema() and table_name = 'MEMBER'";
+        }
+        if (dialect instanceof PostgreSQL81Dialect) {
+            return "select cast(reltuples as bigint) from pg_class where oid = to_regclass('member')";
+        }
+        if (dialect instanceof MySQLDialect) { // MariaDB 포함
+            return "select table_rows from information_schema.tables where table_schema = database() and table_name = 'member'";
+        }
+        return null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findByUsernameCached(String username) {
+        if (!usernameIndex.isEnabled()) {
+            return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                     .setParameter("username", username)
+                     .getResultList();
+        }
+        Set<Long> ids = usernameIndex.idsOf(username, name -> new HashSet<>(
+                em.createQuery("select m.id from Member m where m.username = :username", Long.class)
+                  .setParameter("username", name)
+                  .getResultList()));
+        // 2차 캐시에 있는 회원은 em.find(캐시에서 꺼냄), 없는 회원만 모아서 in (...) 쿼리 한번으로 가져온다
+        List<Member> members = new ArrayList<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            if (em.getEntityManagerFactory().getCache().contains(Member.class, id)) {
+                members.add(em.find(Member.class, id));
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            members.addAll(em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                             .setParameter("ids", misses)
+                             .getResultList());
+        }
+        members.removeIf(member -> member == null || !username.equals(member.getUsername()));
+        if (members.size() != ids.size()) {
+            usernameIndex.evictIds(ids); // 벌크 연산 등으로 인덱스가 어긋났으면 다음 조회 때 새로 읽는다
+        }
+        members.sort(Comparator.comparing(Member::getId));
+        return members;
+    }
 }
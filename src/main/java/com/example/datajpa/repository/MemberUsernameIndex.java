@@ -0,0 +1,139 @@
+package com.example.datajpa.repository;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.example.datajpa.config.UsernameIndexProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @implNote : 애플리케이션 메모리에 두는 username -> 회원 id 인덱스. (read-through)
+ * 처음 조회한 username만 DB에서 읽어서 올리고, 그 뒤로는 회원이 저장/수정/삭제되어 커밋될 때마다 갱신된다. (MemberUsernameIndexListener)
+ * id만 들고 있고 회원 엔티티는 2차 캐시에서 꺼내기 때문에, 자주 찾는 username은 DB에 한번도 가지 않는다.
+ *
+ * DB 조회와 커밋 반영이 동시에 일어나면 옛날 결과가 올라갈 수 있어서, username별 세대(generation) 번호로 막는다.
+ * 조회 시작 때 세대를 기억해두고, 그 사이 같은 username에 변경이 커밋됐으면(세대가 바뀌었으면) 결과를 올리지 않는다.
+ * 세대 비교와 반영은 같은 key의 compute 안에서 해서 원자적이다.
+ * JPQL/네이티브 벌크 연산은 엔티티 이벤트를 안 거치기 때문에 반영되지 않는다. (청크 벌크 삭제는 evictIds로 직접 반영)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberUsernameIndex {
+    private static final int STRIPES = 64;
+
+    private final UsernameIndexProperties properties;
+    private final Map<String, Set<Long>> idsByUsername = new ConcurrentHashMap<>();
+    private final Map<Long, String> usernameById = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // 인덱스에 있으면 바로, 없으면 loader(DB 조회)로 읽어서 올린다
+    public Set<Long> idsOf(String username, Function<String, Set<Long>> loader) {
+        Set<Long> ids = idsByUsername.get(username);
+        if (ids != null) {
+            return ids;
+        }
+        long generation = generations.get(stripe(username));
+        Set<Long> loaded = Collections.unmodifiableSet(new HashSet<>(loader.apply(username)));
+        if (idsByUsername.size() >= properties.getMaxEntries()) {
+            clear();
+        }
+        Set<Long> stored = idsByUsername.compute(username, (key, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            if (generations.get(stripe(key)) != generation) {
+                return null; // 조회하는 사이 변경이 커밋됨 -> 다음 조회 때 다시 읽는다
+            }
+            loaded.forEach(id -> usernameById.put(id, key));
+            return loaded;
+        });
+        return stored != null ? stored : loaded;
+    }
+
+    // 아래는 커밋이 끝난 뒤에만 호출된다
+    void added(Long id, String username) {
+        if (username != null) {
+            // id -> username도 인덱스에 올라온 username일 때만 기억한다 (대량 insert 때 끝없이 커지지 않게)
+            update(username, ids -> {
+                usernameById.put(id, username);
+                return with(ids, id);
+            });
+        }
+    }
+
+    void changed(Long id, String oldUsername, String newUsername) {
+        if (Objects.equals(oldUsername, newUsername)) {
+            return; // username이 안 바뀐 수정(나이 등)은 인덱스와 상관없다
+        }
+        if (oldUsername != null) {
+            update(oldUsername, ids -> without(ids, id));
+        }
+        usernameById.remove(id);
+        added(id, newUsername);
+    }
+
+    void removed(Long id) {
+        String username = usernameById.remove(id);
+        if (username != null) {
+            update(username, ids -> without(ids, id));
+        }
+    }
+
+    // 엔티티 이벤트 없이 DB가 바뀐 경우(벌크 연산). 해당 회원들의 username을 통째로 버리고 다음 조회 때 DB에서 다시 읽는다.
+    public void evictIds(Iterable<Long> ids) {
+        for (Long id : ids) {
+            String username = usernameById.remove(id);
+            if (username != null) {
+                idsByUsername.compute(username, (key, current) -> {
+                    generations.incrementAndGet(stripe(key));
+                    return null;
+                });
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        idsByUsername.clear();
+        usernameById.clear();
+    }
+
+    // 인덱스에 없는 username이면 그대로 둔다 (다음 조회 때 DB에서 새로 읽으면 되니까). 세대는 항상 올린다.
+    private void update(String username, Function<Set<Long>, Set<Long>> change) {
+        idsByUsername.compute(username, (key, ids) -> {
+            generations.incrementAndGet(stripe(key));
+            return ids == null ? null : change.apply(ids);
+        });
+    }
+
+    private static Set<Long> with(Set<Long> ids, Long id) {
+        Set<Long> copy = new HashSet<>(ids);
+        copy.add(id);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    private static Set<Long> without(Set<Long> ids, Long id) {
+        Set<Long> copy = new HashSet<>(ids);
+        copy.remove(id);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    private static int stripe(String username) {
+        return (username.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.datajpa.repository;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import com.example.datajpa.entity.Member;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 회원이 저장/수정/삭제되면 MemberUsernameIndex에 반영한다.
+ * PostCommit* 리스너라서 트랜잭션이 커밋된 뒤에만 호출된다. (롤백되면 인덱스도 그대로)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberUsernameIndexListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+                                                    PostCommitDeleteEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private final EntityManagerFactory emf;
+    private final MemberUsernameIndex index;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class).getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @SuppressWarnings("deprecation") // 하이버네이트 5.4는 아직 이 메서드를 abstract로 요구한다 (requiresPostCommitHandling은 default)
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return persister.getMappedClass() == Member.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            index.added(member.getId(), member.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            if (event.getOldState() == null) {
+                index.removed(member.getId()); // 이전 값을 모르면(merge 등) 이 회원 정보만 버린다
+                index.added(member.getId(), member.getUsername());
+                return;
+            }
+            int username = event.getPersister().getEntityMetamodel().getPropertyIndex("username");
+            index.changed(member.getId(), (String) event.getOldState()[username], member.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            index.removed(((Member) event.getEntity()).getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+}
@@ -24,6 +24,7 @@ public interface NestedClosedProjections {
      */
 
     //결론 : 엔티티 1개를 넘어가는 순간(조인이 들어가는 순간) 쓰기가 조금 애매해짐(최적화가 안돼서)
+    // -> 필요한 컬럼만 가져오려면 NestedClosedProjectionsDto + findNestedProjectionsByUsername 사용
     interface TeamInfo {
         String getName();
     }
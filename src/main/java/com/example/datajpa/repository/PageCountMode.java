@@ -0,0 +1,20 @@
+package com.example.datajpa.repository;
+
+/**
+ * Page 조회 시 totalCount를 어떻게 구할지.
+ * 어떤 모드든 현재 페이지가 꽉 차지 않았으면(= 마지막 페이지) count 쿼리 없이 바로 계산한다.
+ */
+public enum PageCountMode {
+    EXACT,     // 매번 count 쿼리 (기본 동작)
+    CACHED,    // 같은 조건의 count 결과를 짧은 시간(TTL) 동안 재사용
+    ESTIMATED; // DB 통계(테이블 row 수 추정치)로 대신한다. 조건 없는 전체 목록에서만 의미가 있음
+
+    public static PageCountMode from(String mode) {
+        for (PageCountMode value : values()) {
+            if (value.name().equalsIgnoreCase(mode)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("지원하지 않는 count 모드입니다: " + mode);
+    }
+}
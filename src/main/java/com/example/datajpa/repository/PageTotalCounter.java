@@ -0,0 +1,63 @@
+package com.example.datajpa.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import com.example.datajpa.config.PagingProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @implNote : 페이지 내용(content)은 항상 새로 조회하고, totalCount만 모드에 따라 다르게 구한다.
+ * 화면에서는 count 쿼리가 페이지 조회보다 비싼 경우가 많은데, totalCount가 몇 초 늦게 반영되어도 문제 없는 경우가 대부분이다.
+ * PageableExecutionUtils는 첫 페이지인데 size보다 적게 나왔거나, 마지막 페이지면 count를 아예 호출하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageTotalCounter {
+    private final PagingProperties properties;
+    private final Map<String, CachedTotal> cache = new ConcurrentHashMap<>();
+
+    public <T> Page<T> page(List<T> content, Pageable pageable, PageCountMode mode, String cacheKey,
+                            LongSupplier exactCount, LongSupplier estimatedCount) {
+        switch (mode) {
+            case CACHED:
+                return PageableExecutionUtils.getPage(content, pageable, () -> cachedCount(cacheKey, exactCount));
+            case ESTIMATED:
+                return PageableExecutionUtils.getPage(content, pageable, estimatedCount);
+            default:
+                return PageableExecutionUtils.getPage(content, pageable, exactCount);
+        }
+    }
+
+    private long cachedCount(String cacheKey, LongSupplier exactCount) {
+        long now = System.nanoTime();
+        CachedTotal cached = cache.get(cacheKey);
+        if (cached != null && cached.expiresAt - now > 0) {
+            return cached.total;
+        }
+        long total = exactCount.getAsLong();
+        if (cache.size() >= properties.getCountCacheMaxEntries()) {
+            cache.clear(); // 조건 조합이 너무 많으면 그냥 비운다. (LRU까지 할 만큼 비싼 값이 아님)
+        }
+        cache.put(cacheKey, new CachedTotal(total, now + properties.getCountCacheTtl().toNanos()));
+        return total;
+    }
+
+    private static class CachedTotal {
+        private final long total;
+        private final long expiresAt;
+
+        CachedTotal(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
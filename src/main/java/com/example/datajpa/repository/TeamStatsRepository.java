@@ -0,0 +1,42 @@
+package com.example.datajpa.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.datajpa.config.TeamSummaryProperties;
+import com.example.datajpa.dto.TeamStatsDto;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 팀별 회원 통계. Team.getMembers()를 돌거나 findAll() 해서 자바에서 세지 않고 DB에서 집계한 결과만 DTO로 받는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TeamStatsRepository {
+    private final EntityManager em;
+    private final TeamSummaryProperties properties;
+
+    // 매번 member 테이블을 GROUP BY. 항상 정확하지만 회원 수에 비례한다. (age * 1.0 : H2는 정수 컬럼의 avg를 정수로 버린다)
+    @Transactional(readOnly = true)
+    public List<TeamStatsDto> findTeamStats() {
+        return em.createQuery("select new com.example.datajpa.dto.TeamStatsDto(t.id, t.name, count(m), min(m.age), max(m.age), avg(m.age * 1.0))"
+                              + " from Team t left join t.members m group by t.id, t.name order by t.id", TeamStatsDto.class)
+                 .getResultList();
+    }
+
+    // team_summary에서 읽는다. 팀 수에 비례. datajpa.team-summary.enabled=false 면 findTeamStats()와 같다.
+    @Transactional(readOnly = true)
+    public List<TeamStatsDto> findTeamStatsFromSummary() {
+        if (!properties.isEnabled()) {
+            return findTeamStats();
+        }
+        return em.createQuery("select new com.example.datajpa.dto.TeamStatsDto(t.id, t.name, s.memberCount, s.ageSum, s.minAge, s.maxAge)"
+                              + " from Team t left join TeamSummary s on s.teamId = t.id order by t.id", TeamStatsDto.class)
+                 .getResultList();
+    }
+}
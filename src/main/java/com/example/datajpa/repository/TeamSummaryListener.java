@@ -0,0 +1,297 @@
+package com.example.datajpa.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.config.TeamSummaryProperties;
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.entity.Team;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : team_summary(TeamSummary)를 회원 변경에 맞춰 증분으로 갱신한다. datajpa.team-summary.enabled=true 일 때만 동작.
+ * 엔티티 : post insert/update/delete 이벤트에서 팀별 변화량(회원 수, 나이 합계)만 세션별로 모아두고,
+ *   하이버네이트 트랜잭션 완료 직전(마지막 flush 다음)에 같은 커넥션으로 팀당 SQL 두번(merge + min/max)을 보낸다. 롤백되면 버린다.
+ *   - 회원이 들어오기만 하면 min/max는 넓히기만 하면 되고, 빠지거나 나이가 바뀐 팀만 그 팀 회원으로 min/max를 다시 구한다.
+ * 벌크 : bulkUpdatePlus(age), MemberJpaRepository.bulkAgePlus(age)는 이벤트가 없어서 같은 트랜잭션에서 바로 반영한다. (age 이상인 회원만 +1 이라 min/max도 계산으로 맞출 수 있다)
+ *   청크 벌크(bulkAgePlusChunked, bulkDeleteByAgeChunked)는 끝나고 전체를 다시 만든다(rebuild).
+ * 팀 : 팀이 저장될 때 빈 행을 만들고 삭제될 때 지운다. rebuild도 회원 없는 팀까지 행을 만든다.
+ *   그래서 회원 변화량은 항상 이미 있는 행을 고치게 되고, 두 트랜잭션이 같은 팀의 첫 회원을 동시에 넣어도 insert가 부딪히지 않는다.
+ *   (merge의 insert는 하이버네이트를 거치지 않고 만든 팀을 위한 것)
+ */
+@Slf4j
+@Aspect
+@Component
+public class TeamSummaryListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private static final String DELETE_ALL = "delete from team_summary";
+    private static final String INSERT_ALL = "insert into team_summary (team_id, member_count, age_sum, min_age, max_age)"
+            + " select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)"
+            + " from team t left join member m on m.team_id = t.team_id group by t.team_id";
+    private static final String INSERT_TEAM = "insert into team_summary (team_id, member_count, age_sum) values (?, 0, 0)";
+    private static final String DELETE_TEAM = "delete from team_summary where team_id = ?";
+    private static final String MERGE_COUNTS =
+            "merge into team_summary s using (select 1) x on s.team_id = ?"
+            + " when matched then update set member_count = member_count + ?, age_sum = age_sum + ?"
+            + " when not matched then insert (team_id, member_count, age_sum) values (?, ?, ?)";
+    private static final String WIDEN_MIN_MAX =
+            "update team_summary set min_age = case when min_age is null or min_age > ? then ? else min_age end,"
+            + " max_age = case when max_age is null or max_age < ? then ? else max_age end where team_id = ?";
+    private static final String RECOMPUTE_MIN_MAX =
+            "update team_summary set min_age = (select min(age) from member where team_id = ?),"
+            + " max_age = (select max(age) from member where team_id = ?) where team_id = ?";
+
+    private final EntityManagerFactory emf;
+    private final TeamSummaryProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<SessionImplementor, Map<Long, TeamDelta>> pending = new ConcurrentHashMap<>();
+
+    public TeamSummaryListener(EntityManagerFactory emf, TeamSummaryProperties properties, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.emf = emf;
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class).getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        if (properties.isEnabled()) {
+            rebuild(); // 꺼져 있던 동안의 변경은 반영되지 않았으니 한번 새로 만든다
+        }
+    }
+
+    // member 테이블로 team_summary 전체를 다시 만든다 (회원 수에 비례)
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_ALL);
+            jdbcTemplate.update(INSERT_ALL);
+        });
+    }
+
+    @Around("args(age) && ((execution(int bulkUpdatePlus(int)) && this(com.example.datajpa.repository.MemberRepository)) "
+            + "|| (execution(int bulkAgePlus(int)) && this(com.example.datajpa.repository.MemberJpaRepository)))")
+    public Object afterBulkUpdatePlus(ProceedingJoinPoint joinPoint, int age) throws Throwable {
+        if (!properties.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        return transactionTemplate.execute(status -> {
+            Object updated = proceed(joinPoint);
+            // 업데이트 후에 age + 1 이상인 회원 = 이번에 +1 된 회원
+            jdbcTemplate.update("update team_summary s set age_sum = age_sum + (select count(*) from member m where m.team_id = s.team_id and m.age >= ?),"
+                                + " min_age = case when min_age >= ? then min_age + 1 else min_age end,"
+                                + " max_age = case when max_age >= ? then max_age + 1 else max_age end", age + 1, age, age);
+            return updated;
+        });
+    }
+
+    @Around("execution(* bulk*Chunked(..)) && this(com.example.datajpa.repository.MemberRepository)")
+    public Object afterChunkedBulk(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+        return result;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (properties.isEnabled() && event.getEntity() instanceof Team) {
+            delta(event.getSession(), (Long) event.getId()).created = true;
+            return;
+        }
+        if (properties.isEnabled() && event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            delta(event.getSession(), teamId(persister, event.getState())).add(age(persister, event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!properties.isEnabled() || !(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Long teamId = teamId(persister, event.getState());
+        if (event.getOldState() == null) { // 이전 값을 모르면(merge 등) 어느 팀에서 빠졌는지 몰라서 커밋 전에 전체를 다시 만든다
+            delta(event.getSession(), null).rebuild = true;
+            return;
+        }
+        Long oldTeamId = teamId(persister, event.getOldState());
+        int age = age(persister, event.getState());
+        int oldAge = age(persister, event.getOldState());
+        if (!Objects.equals(teamId, oldTeamId) || age != oldAge) {
+            delta(event.getSession(), oldTeamId).remove(oldAge);
+            delta(event.getSession(), teamId).add(age);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (properties.isEnabled() && event.getEntity() instanceof Team) {
+            delta(event.getSession(), (Long) event.getId()).deleted = true;
+            return;
+        }
+        if (properties.isEnabled() && event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            delta(event.getSession(), teamId(persister, event.getDeletedState())).remove(age(persister, event.getDeletedState()));
+        }
+    }
+
+    @SuppressWarnings("deprecation") // 하이버네이트 5.4는 아직 이 메서드를 abstract로 요구한다
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * 세션(트랜잭션)별 변화량. 처음 변화가 생길 때 완료 직전/직후 작업을 한번만 등록한다.
+     * 팀이 없는 회원(teamId null)은 통계에 안 잡히니 버리는 용도의 TeamDelta를 준다. (rebuild 표시는 null 키에 남긴다)
+     */
+    private TeamDelta delta(EventSource session, Long teamId) {
+        Map<Long, TeamDelta> deltas = pending.computeIfAbsent(session, key -> {
+            session.getActionQueue().registerProcess(this::apply);
+            session.getActionQueue().registerProcess((success, s) -> pending.remove(session));
+            return new HashMap<>();
+        });
+        return deltas.computeIfAbsent(teamId, key -> new TeamDelta());
+    }
+
+    private void apply(SessionImplementor session) {
+        Map<Long, TeamDelta> deltas = pending.remove(session);
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        TeamDelta noTeam = deltas.remove(null);
+        session.doWork(connection -> {
+            if (noTeam != null && noTeam.rebuild) {
+                try (PreparedStatement delete = connection.prepareStatement(DELETE_ALL);
+                     PreparedStatement insert = connection.prepareStatement(INSERT_ALL)) {
+                    delete.executeUpdate();
+                    insert.executeUpdate();
+                }
+                return;
+            }
+            try (PreparedStatement insertTeam = connection.prepareStatement(INSERT_TEAM);
+                 PreparedStatement merge = connection.prepareStatement(MERGE_COUNTS);
+                 PreparedStatement widen = connection.prepareStatement(WIDEN_MIN_MAX);
+                 PreparedStatement recompute = connection.prepareStatement(RECOMPUTE_MIN_MAX);
+                 PreparedStatement deleteTeam = connection.prepareStatement(DELETE_TEAM)) {
+                for (Map.Entry<Long, TeamDelta> entry : deltas.entrySet()) {
+                    TeamDelta delta = entry.getValue();
+                    if (delta.deleted) { // 팀이 지워졌으면 회원 변화량은 볼 필요 없다
+                        setLongs(deleteTeam, entry.getKey());
+                        deleteTeam.addBatch();
+                        continue;
+                    }
+                    if (delta.created) {
+                        setLongs(insertTeam, entry.getKey());
+                        insertTeam.addBatch();
+                    }
+                    addBatch(merge, entry.getKey(), delta);
+                    if (delta.recompute) {
+                        setLongs(recompute, entry.getKey(), entry.getKey(), entry.getKey());
+                        recompute.addBatch();
+                    } else if (delta.minAge <= delta.maxAge) { // 들어온 회원이 있을 때만
+                        setLongs(widen, delta.minAge, delta.minAge, delta.maxAge, delta.maxAge, entry.getKey());
+                        widen.addBatch();
+                    }
+                }
+                insertTeam.executeBatch();
+                merge.executeBatch();
+                widen.executeBatch();
+                recompute.executeBatch();
+                deleteTeam.executeBatch();
+            }
+        });
+        log.debug("team_summary 반영 : {}개 팀", deltas.size());
+    }
+
+    private static void addBatch(PreparedStatement merge, Long teamId, TeamDelta delta) throws SQLException {
+        setLongs(merge, teamId, delta.count, delta.ageSum, teamId, delta.count, delta.ageSum);
+        merge.addBatch();
+    }
+
+    private static void setLongs(PreparedStatement statement, long... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            statement.setLong(i + 1, values[i]);
+        }
+    }
+
+    private static Long teamId(EntityPersister persister, Object[] state) {
+        Team team = (Team) state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        return team == null ? null : team.getId(); // 프록시여도 id는 초기화 없이 꺼낸다
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class TeamDelta {
+        private long count;
+        private long ageSum;
+        private int minAge = Integer.MAX_VALUE; // 새로 들어온 회원 중 최소/최대 나이
+        private int maxAge = Integer.MIN_VALUE;
+        private boolean recompute; // 빠진 회원이 있으면 min/max를 다시 구해야 한다
+        private boolean rebuild;
+        private boolean created;   // 이번 트랜잭션에서 저장된 팀
+        private boolean deleted;   // 이번 트랜잭션에서 삭제된 팀
+
+        void add(int age) {
+            count++;
+            ageSum += age;
+            minAge = Math.min(minAge, age);
+            maxAge = Math.max(maxAge, age);
+        }
+
+        void remove(int age) {
+            count--;
+            ageSum -= age;
+            recompute = true;
+        }
+    }
+}
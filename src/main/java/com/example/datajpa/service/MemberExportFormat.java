@@ -0,0 +1,28 @@
+package com.example.datajpa.service;
+
+import org.springframework.http.MediaType;
+
+import lombok.Getter;
+
+@Getter
+public enum MemberExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"), // 한 줄에 JSON 하나 (클라이언트가 줄 단위로 바로 읽을 수 있음)
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    MemberExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public static MemberExportFormat from(String format) {
+        for (MemberExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("지원하지 않는 export 형식입니다: " + format);
+    }
+}
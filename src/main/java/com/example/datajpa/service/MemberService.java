@@ -1,8 +1,23 @@
 package com.example.datajpa.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.entity.Member;
 import com.example.datajpa.repository.MemberRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,9 +26,79 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @RequiredArgsConstructor
 public class MemberService {
+    private static final int FLUSH_INTERVAL = 1000; // 이 개수마다 응답으로 밀어낸다(chunk)
+
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
 
     public void test(){
         log.info("-------Repository class------- : {}",memberRepository.getClass()); // class : com.sun.proxy.$Proxy83 (프록시)
     }
+
+    /**
+     * @implNote : 전체 회원을 한 row씩 읽어서 바로 out에 써준다. 전체를 메모리에 올리지 않기 때문에 수백만건이어도 메모리가 일정하다.
+     * Stream은 트랜잭션이 열려있는 동안에만 읽을 수 있어서, 쓰는 작업까지 이 트랜잭션 안에서 끝내야 한다.
+     * @return 내보낸 회원 수
+     */
+    @Transactional(readOnly = true)
+    public long exportMembers(OutputStream out, MemberExportFormat format) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(MemberDto.class);
+        long count = 0;
+        try (Stream<MemberDto> members = memberRepository.streamAllMemberDto()) {
+            if (format == MemberExportFormat.CSV) {
+                writer.write("id,username,teamName\n");
+            }
+            Iterator<MemberDto> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                MemberDto member = iterator.next();
+                if (format == MemberExportFormat.CSV) {
+                    writer.write(member.getId() + "," + csv(member.getUsername()) + "," + csv(member.getTeamName()) + "\n");
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(member));
+                    writer.write('\n');
+                }
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("회원 export 완료 : {}건 ({})", count, format);
+        return count;
+    }
+
+    /**
+     * @implNote : 나이 변경 두가지 방식. 같은 회원을 여러 요청이 동시에 고칠 때 차이가 난다.
+     * - 비관적 락 : select ... for update 로 먼저 잡은 트랜잭션이 끝날 때까지 나머지는 DB에서 줄 서서 기다린다. 충돌은 없지만 대기가 길어지면 꼬리 지연(p99)이 커진다.
+     * - 낙관적 락 : 락 없이 읽고 update ... where version=? 로 쓴다. 먼저 쓴 쪽이 이기고 진 쪽은 @OptimisticRetry로 다시 읽어서 다시 쓴다.
+     * 충돌이 드문 곳이면 낙관적 락이 유리하고, 같은 row에 쓰기가 몰리면 재시도가 늘어나니 벤치마크(ContentionBenchmark)로 비교해보고 고를 것.
+     * @return 바뀐 나이
+     */
+    @OptimisticRetry(maxAttempts = 10)
+    @Transactional
+    public int addAgeOptimistic(Long memberId, int delta) {
+        Member member = memberRepository.findById(memberId).orElseThrow();
+        member.addAge(delta);
+        return member.getAge();
+    }
+
+    @Transactional
+    public int addAgePessimistic(Long memberId, int delta) {
+        Member member = memberRepository.findLockById(memberId).orElseThrow();
+        member.addAge(delta);
+        return member.getAge();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
 }
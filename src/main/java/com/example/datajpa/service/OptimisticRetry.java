@@ -0,0 +1,27 @@
+package com.example.datajpa.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 락 충돌(OptimisticLockingFailureException)이 나면 메서드를 처음부터 다시 실행한다. (OptimisticRetryAspect)
+ * 시도마다 새 트랜잭션이어야 최신 version을 다시 읽기 때문에 @Transactional 메서드에 같이 붙인다.
+ * 이미 열린 트랜잭션 안에서 호출되면 그 트랜잭션이 롤백 대상이 되어서 재시도하지 않고 예외를 그대로 던진다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OptimisticRetry {
+    // 첫 시도 포함
+    int maxAttempts() default 5;
+
+    // 첫 재시도 전 대기. 재시도마다 multiplier 배씩 늘어나고 maxBackoffMillis를 넘지 않는다.
+    long backoffMillis() default 10;
+
+    double multiplier() default 2.0;
+
+    long maxBackoffMillis() default 200;
+}
@@ -0,0 +1,62 @@
+package com.example.datajpa.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @implNote : @OptimisticRetry 메서드를 트랜잭션 바깥에서 감싼다. (트랜잭션 인터셉터가 LOWEST_PRECEDENCE라서 그 바로 앞 순서)
+ * 그래서 충돌로 커밋이 실패하면 트랜잭션은 이미 롤백된 상태이고, 다시 호출하면 새 트랜잭션에서 최신 값을 읽는다.
+ * 대기 시간에는 지터(0.5 ~ 1배)를 줘서 같이 충돌한 스레드들이 다시 동시에 부딪히지 않게 한다.
+ * 재시도 횟수는 datajpa.optimistic.retries(method, outcome=retried/exhausted)로 남긴다.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class OptimisticRetryAspect {
+    private final MeterRegistry registry;
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, OptimisticRetry retry) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed(); // 바깥 트랜잭션이 있으면 재시도해도 같은 (롤백될) 트랜잭션이다
+        }
+        long backoff = retry.backoffMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                String method = joinPoint.getSignature().toShortString();
+                if (attempt >= retry.maxAttempts()) {
+                    registry.counter("datajpa.optimistic.retries", "method", method, "outcome", "exhausted").increment();
+                    log.warn("낙관적 락 충돌 {}번, 재시도 포기 : {}", attempt, method);
+                    throw e;
+                }
+                registry.counter("datajpa.optimistic.retries", "method", method, "outcome", "retried").increment();
+                log.debug("낙관적 락 충돌 {}번째, {}ms 후 재시도 : {}", attempt, backoff, method);
+                sleep(backoff);
+                backoff = Math.min(retry.maxBackoffMillis(), (long) (backoff * retry.multiplier()));
+            }
+        }
+    }
+
+    private static void sleep(long backoffMillis) throws InterruptedException {
+        if (backoffMillis > 0) {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis / 2, backoffMillis + 1));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+-- faststart 프로필의 스키마 (ddl-auto: validate 로 엔티티 매핑과 맞는지만 확인한다)
+-- 엔티티를 바꾸면 이 파일을 고치지 말고 V2__... 를 새로 추가할 것
+create sequence member_seq start with 1 increment by 50;
+create sequence team_seq start with 1 increment by 50;
+
+create table team (
+    team_id bigint not null,
+    created_date timestamp,
+    updated_date timestamp,
+    name varchar(255),
+    version bigint not null default 0,
+    primary key (team_id)
+);
+
+create table member (
+    member_id bigint not null,
+    created_date timestamp,
+    last_modified_date timestamp,
+    created_by varchar(255),
+    last_modified_by varchar(255),
+    age integer not null,
+    username varchar(255),
+    version bigint not null default 0,
+    team_id bigint,
+    primary key (member_id)
+);
+
+create index idx_member_username on member (username);
+
+alter table member add constraint fk_member_team foreign key (team_id) references team;
+
+create table item (
+    id varchar(255) not null,
+    created_date timestamp,
+    name varchar(255),
+    primary key (id)
+);
+
+create table team_summary (
+    team_id bigint not null,
+    member_count bigint not null,
+    age_sum bigint not null,
+    min_age integer,
+    max_age integer,
+    primary key (team_id)
+);
@@ -0,0 +1,99 @@
+package com.example.datajpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 스프링 컨텍스트 없이 H2 메모리 DB 두개(primary, replica)로 라우팅만 확인한다.
+ * 각 DB의 where_am_i 테이블에 자기 이름을 넣어두고, 조회 결과로 어느 쪽에서 읽었는지 본다.
+ */
+class ReadWriteRoutingDataSourceTest {
+    private static final String LAG_QUERY = "select seconds from replica_lag";
+
+    DataSource primary = h2("routing-primary");
+    DataSource replica = h2("routing-replica");
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("drop all objects"); // shutdown은 JdbcTemplate에서 "already closed" 예외가 난다
+        new JdbcTemplate(replica).execute("drop all objects");
+    }
+
+    @DisplayName("읽기 전용 트랜잭션은 replica로, 쓰기 트랜잭션은 primary로 간다")
+    @Test
+    void read_only_goes_to_replica() {
+        DataSource dataSource = routing(Duration.ofSeconds(5));
+
+        assertThat(whereAmI(dataSource, true)).isEqualTo("routing-replica");
+        assertThat(whereAmI(dataSource, false)).isEqualTo("routing-primary");
+        assertThat(new JdbcTemplate(dataSource).queryForObject("select name from where_am_i", String.class))
+                .isEqualTo("routing-primary"); // 트랜잭션 밖
+    }
+
+    @DisplayName("replica가 max-replica-lag 보다 뒤처지면 읽기 전용이어도 primary에서 읽는다")
+    @Test
+    void lagging_replica_falls_back_to_primary() {
+        DataSource dataSource = routing(Duration.ofSeconds(5));
+        new JdbcTemplate(replica).update("update replica_lag set seconds = 30");
+
+        assertThat(whereAmI(dataSource, true)).isEqualTo("routing-primary");
+    }
+
+    @DisplayName("지연 확인 쿼리가 실패하면 그 replica는 쓰지 않는다")
+    @Test
+    void unreachable_replica_falls_back_to_primary() {
+        DataSource dataSource = routing(Duration.ofSeconds(5));
+        new JdbcTemplate(replica).execute("drop table replica_lag");
+
+        assertThat(whereAmI(dataSource, true)).isEqualTo("routing-primary");
+    }
+
+    @DisplayName("지연 확인용 replica 커넥션은 트랜잭션에 묶이지 않고 바로 반납된다")
+    @Test
+    void lag_probe_does_not_bind_replica_connection() {
+        DataSource dataSource = routing(Duration.ofSeconds(5));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+
+        boolean bound = transactionTemplate.execute(status -> {
+            new JdbcTemplate(dataSource).queryForObject("select name from where_am_i", String.class); // 여기서 지연 확인
+            return TransactionSynchronizationManager.hasResource(replica);
+        });
+        assertFalse(bound);
+    }
+
+    private DataSource routing(Duration maxLag) {
+        ReplicaLagGuard lagGuard = new ReplicaLagGuard(LAG_QUERY, maxLag, Duration.ZERO);
+        return ReadWriteRoutingDataSource.wrap(new ReadWriteRoutingDataSource(primary, List.of(replica), lagGuard));
+    }
+
+    private static String whereAmI(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> new JdbcTemplate(dataSource).queryForObject("select name from where_am_i", String.class));
+    }
+
+    private static DataSource h2(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table where_am_i (name varchar(50))");
+        jdbcTemplate.update("insert into where_am_i values (?)", name);
+        jdbcTemplate.execute("create table replica_lag (seconds int)");
+        jdbcTemplate.update("insert into replica_lag values (0)");
+        return dataSource;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.datajpa.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.repository.MemberRepository;
+
+/**
+ * 조건부 GET(ETag, Last-Modified). 수정이 커밋된 뒤의 응답을 봐야 해서 TransactionTemplate으로 커밋해가면서 확인한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory emf;
+
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                memberIds.add(memberRepository.save(new Member("etag" + i, 30_000 + i)).getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> memberIds.forEach(memberRepository::deleteById));
+    }
+
+    @DisplayName("회원이 바뀌지 않았으면 ETag로 304를 주고 엔티티를 읽지 않는다. 수정되면 새 ETag로 200")
+    @Test
+    void member_not_modified_until_changed() throws Exception {
+        Long id = memberIds.get(0);
+        String etag = mockMvc.perform(get("/members/{id}", id))
+                             .andExpect(status().isOk())
+                             .andExpect(content().string("etag0"))
+                             .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                             .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long entityLoads = statistics.getEntityLoadCount();
+        mockMvc.perform(get("/members/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isNotModified())
+               .andExpect(content().string(""));
+        assertEquals(entityLoads, statistics.getEntityLoadCount());
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(id).get().changeUsername("etagChanged"));
+
+        String changedEtag = mockMvc.perform(get("/members/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                                    .andExpect(status().isOk())
+                                    .andExpect(content().string("etagChanged"))
+                                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changedEtag);
+    }
+
+    @DisplayName("목록은 페이지 안의 (id, version)으로 ETag를 만들고, 벌크 업데이트로 바뀌어도 감지한다")
+    @Test
+    void page_not_modified_until_bulk_update() throws Exception {
+        QueryStatistics countQuery = emf.unwrap(SessionFactory.class).getStatistics().getQueryStatistics("select count(m) from Member m");
+        long counts = countQuery.getExecutionCount();
+        String etag = mockMvc.perform(get("/members").param("size", "3").param("sort", "id,desc"))
+                             .andExpect(status().isOk())
+                             .andExpect(jsonPath("$.content[*].id").value(contains(memberIds.get(2).intValue(), memberIds.get(1).intValue(), memberIds.get(0).intValue())))
+                             .andExpect(jsonPath("$.totalElements").isNumber())
+                             .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(counts + 1, countQuery.getExecutionCount()); // 버전 조회의 count 한번만
+
+        mockMvc.perform(get("/members").param("size", "3").param("sort", "id,desc").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isNotModified());
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkUpdatePlus(30_002));
+
+        mockMvc.perform(get("/members").param("size", "3").param("sort", "id,desc").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isOk())
+               .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+}
@@ -2,11 +2,22 @@ package com.example.datajpa.entity;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,12 +25,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.datajpa.config.AuditingFlushListener;
+import com.example.datajpa.config.AuditingProperties;
+import com.example.datajpa.config.CoarseClock;
 import com.example.datajpa.repository.MemberRepository;
 
 @Rollback(false)
 @Transactional
 @SpringBootTest
 class MemberTest {
+    private static final int LARGE_TEAM = 100_000;
 
     @PersistenceContext
     EntityManager em;
@@ -77,4 +92,95 @@ class MemberTest {
         System.out.println("findMember.getCreatedBy() = " + findMember.getCreatedBy());
         System.out.println("findMember.getLastModifiedBy() = " + findMember.getLastModifiedBy());
     }
-}
\ No newline at end of file
+
+    @DisplayName("한 트랜잭션에서 저장한 엔티티들은 등록자를 한번만 구해서 같이 쓴다")
+    @Rollback
+    @Test
+    void auditor_is_cached_per_transaction() {
+        Member member1 = memberRepository.save(new Member("audit1"));
+        Member member2 = memberRepository.save(new Member("audit2"));
+        em.flush();
+
+        assertNotNull(member1.getCreatedBy());
+        assertEquals(member1.getCreatedBy(), member2.getCreatedBy());
+        assertEquals(member1.getCreatedBy(), member1.getLastModifiedBy());
+        assertNotNull(member1.getCreatedDate());
+    }
+
+    @DisplayName("flush 모드 : 엔티티 리스너는 건너뛰고, pre-insert 이벤트에서 insert 값 배열과 엔티티에 감사 컬럼을 채운다")
+    @Test
+    void flush_mode_fills_audit_columns_on_insert() {
+        AuditingProperties flushMode = new AuditingProperties();
+        flushMode.setMode(AuditingProperties.Mode.FLUSH);
+        AuditingListener entityListener = new AuditingListener();
+        entityListener.setProperties(flushMode);
+        Member member = new Member("flushAudit");
+        entityListener.touchForCreate(member);
+        assertNull(member.getCreatedDate());
+
+        LocalDateTime now = LocalDateTime.of(2021, 3, 1, 12, 0);
+        CoarseClock clock = new CoarseClock(Clock.fixed(now.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()),
+                                            Duration.ofMillis(10));
+        AuditingFlushListener flushListener = new AuditingFlushListener(clock, () -> Optional.of("batch-user"));
+        EventSource session = em.unwrap(EventSource.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        Object[] state = persister.getPropertyValues(member);
+
+        flushListener.onPreInsert(new PreInsertEvent(member, 1L, state, persister, session));
+
+        assertEquals(now, member.getCreatedDate());
+        assertEquals(now, member.getLastModifiedDate());
+        assertEquals("batch-user", member.getCreatedBy());
+        assertEquals("batch-user", state[persister.getEntityMetamodel().getPropertyIndex("lastModifiedBy")]);
+    }
+
+    @DisplayName("회원 10만명인 팀끼리 회원을 옮겨도 members 컬렉션을 읽어오지 않고, size/contains는 SQL로 맞는 값을 준다")
+    @Test
+    @Rollback
+    void move_members_between_large_teams() {
+        Team teamA = new Team("largeTeamA");
+        Team teamB = new Team("largeTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.flush();
+        insertMembers(teamA, 100_000_000L);
+        insertMembers(teamB, 200_000_000L);
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long collectionLoads = statistics.getCollectionLoadCount();
+        long entityLoads = statistics.getEntityLoadCount();
+
+        List<Member> moving = em.createQuery("select m from Member m where m.team.id = :teamId order by m.id", Member.class)
+                                .setParameter("teamId", teamA.getId())
+                                .setMaxResults(10)
+                                .getResultList();
+        Team newTeam = em.find(Team.class, teamB.getId());
+        for (Member member : moving) {
+            member.changeTeam(newTeam);
+        }
+        Member joined = new Member("largeTeamJoined", 1, newTeam);
+        em.persist(joined);
+
+        Team oldTeam = em.getReference(Team.class, teamA.getId()); // 회원들이 들고 있던 teamA 프록시
+        assertEquals(LARGE_TEAM - moving.size(), oldTeam.getMembers().size());
+        assertEquals(LARGE_TEAM + moving.size() + 1, newTeam.getMembers().size());
+        assertTrue(newTeam.getMembers().contains(moving.get(0)));
+        assertFalse(oldTeam.getMembers().contains(moving.get(0)));
+        assertTrue(newTeam.getMembers().contains(joined));
+
+        assertFalse(Hibernate.isInitialized(oldTeam.getMembers()));
+        assertFalse(Hibernate.isInitialized(newTeam.getMembers()));
+        assertEquals(0, statistics.getCollectionLoadCount() - collectionLoads);
+        assertTrue(statistics.getEntityLoadCount() - entityLoads <= moving.size() + 2); // 옮긴 회원 + 팀 2개
+    }
+
+    private void insertMembers(Team team, long firstId) {
+        em.createNativeQuery("insert into member (member_id, username, age, team_id, version) "
+                             + "select ? + x, 'large' || x, 0, ?, 0 from system_range(1, ?)")
+          .setParameter(1, firstId)
+          .setParameter(2, team.getId())
+          .setParameter(3, LARGE_TEAM)
+          .executeUpdate();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.datajpa.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import javax.servlet.FilterChain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.datajpa.config.NPlusOneProperties;
+
+/**
+ * 스프링 컨텍스트 없이 필터만 확인한다. SQL 대신 QueryCounter에 직접 기록해서 N+1 상황을 만든다.
+ */
+class NPlusOneDetectionFilterTest {
+    NPlusOneProperties properties = new NPlusOneProperties();
+    NPlusOneDetectionFilter filter = new NPlusOneDetectionFilter(properties);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/members");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @DisplayName("fail-on-detection 이면 본문을 내보내기 전에 실패해서 응답이 커밋되지 않는다")
+    @Test
+    void fail_before_body_is_written() throws Exception {
+        properties.setFailOnDetection(true);
+
+        assertThrows(NPlusOneDetectedException.class, () -> filter.doFilter(request, response, selects(3)));
+        assertFalse(response.isCommitted());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @DisplayName("fail-on-detection 이어도 N+1이 없으면 모아둔 본문을 그대로 내보낸다")
+    @Test
+    void body_is_copied_without_repeated_selects() throws Exception {
+        properties.setFailOnDetection(true);
+
+        filter.doFilter(request, response, selects(1));
+
+        assertEquals("members", response.getContentAsString());
+    }
+
+    private static FilterChain selects(int times) {
+        return (request, response) -> {
+            for (int i = 0; i < times; i++) {
+                QueryCounterHolder.current().record("select * from member where member_id = ?");
+            }
+            response.getWriter().write("members");
+            response.flushBuffer(); // 보통은 여기서 응답이 커밋된다
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.config.AsyncConfig;
+import com.example.datajpa.config.AsyncProperties;
+import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.entity.Team;
+
+/**
+ * 비동기 메서드는 다른 스레드에서 자기 트랜잭션으로 실행되기 때문에, 테스트 트랜잭션 안에서 저장한 데이터는 보이지 않는다.
+ * 그래서 이 클래스는 @Transactional 없이 데이터를 커밋하고 끝나면 지운다.
+ */
+@SpringBootTest
+class AsyncMemberRepositoryTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    @Qualifier(AsyncConfig.REPOSITORY_EXECUTOR)
+    Executor repositoryExecutor;
+
+    Team team;
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            team = teamRepository.save(new Team("asyncTeam"));
+            for (int i = 0; i < 5; i++) {
+                memberIds.add(memberRepository.save(new Member("async" + i, 200_000 + i, team)).getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            memberIds.forEach(memberRepository::deleteById);
+            teamRepository.deleteById(team.getId());
+        });
+    }
+
+    @DisplayName("비동기 조회를 여러개 동시에 보내도 각각 자기 트랜잭션에서 실행되어 결과를 돌려준다")
+    @Test
+    void async_queries_run_concurrently() throws Exception {
+        List<CompletableFuture<Page<Member>>> pages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pages.add(memberRepository.findAllAsync(PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "id"))));
+        }
+        CompletableFuture<List<MemberDto>> dtos = memberRepository.findMemberDtoAsync(PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "id")));
+
+        CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<Page<Member>> page : pages) {
+            assertThat(page.get().getTotalElements()).isGreaterThanOrEqualTo(5);
+            assertEquals(3, page.get().getContent().size());
+        }
+        List<MemberDto> result = dtos.get(10, TimeUnit.SECONDS);
+        assertThat(result.stream().map(MemberDto::getId).collect(Collectors.toList())).containsExactlyInAnyOrderElementsOf(memberIds);
+        assertThat(result).extracting(MemberDto::getTeamName).containsOnly("asyncTeam");
+    }
+
+    @DisplayName("spec 병렬 조회는 id 구간을 나눠 조회해도 findAll(spec, sort)와 순서, 개수가 같다")
+    @Test
+    void parallel_spec_keeps_sort_and_limit() {
+        AsyncProperties properties = new AsyncProperties();
+        properties.setSpecPartitions(4);
+        properties.setSpecMinPartitionSize(1); // 회원 5명도 파티션 여러개로 나눈다
+        MemberParallelRepository parallelRepository = new MemberParallelRepositoryImpl(em, transactionManager, repositoryExecutor, properties);
+        Specification<Member> spec = MemberSpec.teamName("asyncTeam");
+
+        Sort ageDesc = Sort.by(Sort.Direction.DESC, "age");
+        assertThat(parallelRepository.findAllParallel(spec, ageDesc, 3)).extracting(Member::getId)
+                .containsExactly(memberIds.get(4), memberIds.get(3), memberIds.get(2));
+
+        Sort byTeamThenUsername = Sort.by("team.name").and(Sort.by(Sort.Direction.DESC, "username"));
+        List<Long> expected = transactionTemplate.execute(status -> memberRepository.findAll(spec, byTeamThenUsername)
+                                                                                    .stream().map(Member::getId)
+                                                                                    .collect(Collectors.toList()));
+        assertThat(parallelRepository.findAllParallel(spec, byTeamThenUsername, Integer.MAX_VALUE)).extracting(Member::getId)
+                .containsExactlyElementsOf(expected);
+        assertThat(parallelRepository.findAllParallel(spec.and(MemberSpec.userName("nobody")), ageDesc, 10)).isEmpty();
+    }
+
+    @DisplayName("id, 이름 목록 일괄 조회는 청크로 나눠 동시에 조회해도 요청한 순서대로, 같은 키는 한번만 돌려준다")
+    @Test
+    void batch_lookup_keeps_request_order() {
+        AsyncProperties properties = new AsyncProperties();
+        properties.setLookupChunkSize(2); // 회원 5명도 청크 여러개로 나눈다
+        MemberBatchLookupRepository lookupRepository = new MemberBatchLookupRepositoryImpl(em, transactionManager, repositoryExecutor, properties);
+        Long missing = memberIds.get(4) + 1_000_000;
+
+        List<Long> ids = List.of(memberIds.get(3), memberIds.get(0), missing, memberIds.get(4), memberIds.get(0), memberIds.get(1));
+        assertThat(lookupRepository.findDtosByIds(ids)).extracting(MemberDto::getId)
+                .containsExactly(memberIds.get(3), memberIds.get(0), memberIds.get(4), memberIds.get(1));
+        assertThat(lookupRepository.findDtosByIds(ids)).extracting(MemberDto::getTeamName).containsOnly("asyncTeam");
+        assertThat(lookupRepository.findDtosByIds(List.of())).isEmpty();
+
+        assertThat(lookupRepository.findDtosByNames(List.of("async2", "nobody", "async0", "async2", "async1")))
+                .extracting(MemberDto::getId).containsExactly(memberIds.get(2), memberIds.get(0), memberIds.get(1));
+        assertThat(memberRepository.findDtosByIds(List.of(memberIds.get(1)))).extracting(MemberDto::getUsername).containsExactly("async1");
+
+        properties.setLookupChunkSize(0);
+        assertThrows(IllegalArgumentException.class, () -> new MemberBatchLookupRepositoryImpl(em, transactionManager, repositoryExecutor, properties));
+    }
+}
@@ -1,11 +1,26 @@
 package com.example.datajpa.repository;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.datajpa.entity.Item;
 
@@ -14,6 +29,10 @@ class ItemRepositoryTest {
 
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private EntityManagerFactory emf;
+    @PersistenceContext
+    private EntityManager em;
 
     @DisplayName("저장")
     @Test
@@ -22,4 +41,55 @@ class ItemRepositoryTest {
         // UUID 처럼 문자라고 하면, save시에 isNew라고 판단할까? NO. 이미 id를 설정했기 때문에 persist를 호출하지 않음. merge로 감
         itemRepository.save(item); // 그래서 Item Entity에 Persistable<String>를 상속받고, isNew를 Override해서 해결
     }
-}
\ No newline at end of file
+
+    @DisplayName("persistAll은 select 없이 insert 배치만 보낸다")
+    @Test
+    @Transactional
+    void persistAll_never_selects() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        List<Item> items = items("persist", 250);
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long loadsBefore = statistics.getEntityLoadCount();
+
+        assertEquals(250, itemRepository.persistAll(items));
+
+        assertEquals(0, statistics.getEntityLoadCount() - loadsBefore);
+        assertThat(statistics.getPrepareStatementCount() - statementsBefore).isLessThanOrEqualTo(3); // batch_size 100 -> 배치 3번
+        assertThat(itemRepository.findById("persist-249")).map(Item::getName).hasValue("name-249");
+    }
+
+    @DisplayName("persistAll은 이미 있는 id를 merge로 덮어쓰지 않고 실패한다")
+    @Test
+    @Transactional
+    void persistAll_fails_on_existing_id() {
+        itemRepository.persistAll(items("dup", 1));
+
+        assertThatThrownBy(() -> itemRepository.persistAll(items("dup", 1))).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @DisplayName("upsertAll은 없는 id는 insert, 있는 id는 update 하고 등록일은 유지한다")
+    @Test
+    @Transactional
+    void upsertAll_inserts_or_updates() {
+        itemRepository.persistAll(List.of(new Item("upsert-0", "before")));
+        LocalDateTime createdDate = itemRepository.findById("upsert-0").get().getCreatedDate();
+        em.clear();
+
+        int affected = itemRepository.upsertAll(List.of(new Item("upsert-0", "after"), new Item("upsert-1", "new")));
+
+        assertEquals(2, affected);
+        Item updated = itemRepository.findById("upsert-0").get();
+        assertEquals("after", updated.getName());
+        assertEquals(createdDate, updated.getCreatedDate());
+        Item inserted = itemRepository.findById("upsert-1").get();
+        assertEquals("new", inserted.getName());
+        assertNotNull(inserted.getCreatedDate());
+        assertFalse(inserted.isNew());
+    }
+
+    private static List<Item> items(String prefix, int count) {
+        return IntStream.range(0, count)
+                        .mapToObj(i -> new Item(prefix + "-" + i, "name-" + i))
+                        .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.dto.MemberVersion;
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.entity.Team;
+
+import com.sun.management.ThreadMXBean;
+
+@SpringBootTest
+@Transactional
+class MemberQueryRepositoryTest {
+    private static final int MEMBERS = 300;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team[] teams = { new Team("readTeamA"), new Team("readTeamB") };
+        for (Team team : teams) {
+            em.persist(team);
+        }
+        for (int i = 0; i < MEMBERS; i++) {
+            em.persist(new Member("read" + i, i, teams[i % teams.length]));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @DisplayName("DTO 페이지 조회는 팀 이름까지 한번에 가져오고, 영속성 컨텍스트에 엔티티를 올리지 않는다")
+    @Test
+    void dto_page_hydrates_no_entities() {
+        Page<MemberDto> page = memberQueryRepository.findMemberDtoPage(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id")),
+                                                                       PageCountMode.EXACT);
+
+        assertEquals(10, page.getContent().size());
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(MEMBERS);
+        assertThat(page.getContent()).extracting(MemberDto::getTeamName).containsOnly("readTeamA", "readTeamB");
+        assertEquals(0, em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities());
+    }
+
+    @DisplayName("버전 조회를 팀 이름으로 정렬해도 팀 없는 회원이 빠지지 않고, 내용 개수가 totalElements와 맞는다")
+    @Test
+    void version_page_sorted_by_team_keeps_members_without_team() {
+        Member noTeam = new Member("readNoTeam", 0);
+        em.persist(noTeam);
+        em.flush();
+
+        Page<MemberVersion> page = memberQueryRepository.findVersionPage(PageRequest.of(0, 10_000, Sort.by("team.name")),
+                                                                         PageCountMode.EXACT);
+
+        assertEquals(page.getTotalElements(), page.getContent().size());
+        assertThat(page.getContent()).extracting(MemberVersion::getId).contains(noTeam.getId());
+    }
+
+    /**
+     * 같은 페이지(100건)를 엔티티 경로(findAll + map)와 DTO 경로로 여러번 조회하면서 현재 스레드가 할당한 바이트를 비교한다.
+     * 엔티티 경로는 엔티티 + 스냅샷 배열 + 엔티티 키 + team 프록시 + 2차 캐시 엔트리까지 만든다.
+     */
+    @DisplayName("DTO 경로가 엔티티 경로보다 요청당 힙 할당이 적다")
+    @Test
+    void dto_path_allocates_less() {
+        Pageable pageable = PageRequest.of(0, 100, Sort.by("id"));
+        Supplier<Page<MemberDto>> entityPath = () -> memberRepository.findAll(pageable).map(MemberDto::new);
+        Supplier<Page<MemberDto>> dtoPath = () -> memberQueryRepository.findMemberDtoPage(pageable, PageCountMode.EXACT);
+
+        allocatedBytes(entityPath, 20); // 워밍업 (쿼리 플랜 캐시, 클래스 로딩)
+        allocatedBytes(dtoPath, 20);
+        long entityBytes = allocatedBytes(entityPath, 50);
+        long dtoBytes = allocatedBytes(dtoPath, 50);
+
+        System.out.printf("요청당 할당 : 엔티티 경로 %,d bytes, DTO 경로 %,d bytes (%.1f배)%n",
+                          entityBytes / 50, dtoBytes / 50, (double) entityBytes / dtoBytes);
+        assertThat(dtoBytes).isLessThan(entityBytes);
+    }
+
+    private long allocatedBytes(Supplier<Page<MemberDto>> query, int times) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            query.get();
+            em.clear(); // 요청마다 새 영속성 컨텍스트
+        }
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+}
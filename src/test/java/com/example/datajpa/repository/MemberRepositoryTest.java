@@ -2,19 +2,29 @@ package com.example.datajpa.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
@@ -26,9 +36,22 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.datajpa.dto.BulkUpdateResult;
+import com.example.datajpa.dto.KeysetWindow;
+import com.example.datajpa.dto.MemberCursor;
 import com.example.datajpa.dto.MemberDto;
+import com.example.datajpa.dto.MemberSortKey;
+import com.example.datajpa.dto.NestedClosedProjectionsDto;
+import com.example.datajpa.dto.UsernameAgeDto;
 import com.example.datajpa.entity.Member;
 import com.example.datajpa.entity.Team;
+import com.example.datajpa.monitoring.NPlusOneDetectedException;
+import com.example.datajpa.monitoring.QueryCounter;
+import com.example.datajpa.monitoring.QueryCounterHolder;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @SpringBootTest
 @Transactional
@@ -38,6 +61,8 @@ public class MemberRepositoryTest {
     MemberRepository memberRepository;
     @Autowired
     TeamRepository teamRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
 
     @PersistenceContext
     EntityManager em;
@@ -390,6 +415,20 @@ public class MemberRepositoryTest {
          */
     }
 
+    @DisplayName("하이버네이트를 거치지 않고 넣은 회원도 version이 0부터 시작해서 벌크 업데이트 후 수정할 수 있다")
+    @Test
+    void bulkUpdate_native_insert_without_version() {
+        em.createNativeQuery("insert into member (member_id, username, age) values (200000000, 'nativeMember', 40000)").executeUpdate();
+
+        memberRepository.bulkUpdatePlus(40000);
+        Member member = memberRepository.findById(200_000_000L).get();
+        assertEquals(1L, member.getVersion());
+
+        member.changeUsername("nativeMemberChanged");
+        em.flush();
+        assertEquals(2L, member.getVersion());
+    }
+
     @DisplayName("영속성 컨텍스트에 있는 것을 조회할 때 또 쿼리가 나갈까?")
     @Test
     void my_query_test() {
@@ -536,6 +575,45 @@ public class MemberRepositoryTest {
                 System.out.println("member.getTeam().getName() = " + member.getTeam().getName());
             }
         }
+        @DisplayName("default_batch_fetch_size 덕분에 지연로딩 팀들을 in 쿼리 한번으로 가져온다")
+        @Rollback
+        @Test
+        void batch_fetch_lazy_teams() {
+            for (int i = 0; i < 5; i++) {
+                Team team = new Team("batchTeam" + i);
+                teamRepository.save(team);
+                memberRepository.save(new Member("batchFetch", i, team));
+            }
+            em.flush();
+            em.clear();
+            em.getEntityManagerFactory().getCache().evictAll();
+
+            QueryCounter counter = QueryCounterHolder.count(() -> {
+                List<Member> members = memberRepository.findListByUsername("batchFetch"); // 엔티티 그래프 없음
+                for (Member member : members) {
+                    System.out.println("member.getTeam().getName() = " + member.getTeam().getName()); // 첫 프록시 초기화 때 5개 팀을 한번에
+                }
+            });
+
+            assertEquals(2, counter.getStatementCount()); // 회원 조회 1 + 팀 in 조회 1
+            counter.verifyNoRepeatedSelects(2);
+        }
+
+        @DisplayName("같은 SELECT가 반복되면 N+1로 감지한다")
+        @Rollback
+        @Test
+        void detect_repeated_selects() {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                ids.add(memberRepository.save(new Member("detect" + i, i)).getId());
+            }
+            em.flush();
+            em.clear();
+
+            QueryCounter counter = QueryCounterHolder.count(() -> ids.forEach(id -> memberRepository.findById(id))); // 루프 안에서 조회
+
+            assertThrows(NPlusOneDetectedException.class, () -> counter.verifyNoRepeatedSelects(3));
+        }
     }
 
     @DisplayName("queryHint Test")
@@ -713,6 +791,38 @@ public class MemberRepositoryTest {
          */
     }
 
+    @DisplayName("모양이 같은 Example은 컴파일한 JPQL을 재사용하고, 결과는 findAll(Example)과 같다")
+    @Test
+    void queryByExample_cached() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 0, teamA));
+        em.persist(new Member("member1", 2, teamA));
+        em.persist(new Member("Member2", 2));
+        em.flush();
+        em.clear();
+
+        Sort sort = Sort.by(Direction.DESC, "age").and(Sort.by("id"));
+        Member byTeam = new Member("member1");
+        byTeam.setTeam(new Team("teamA"));
+        List<Example<Member>> examples = List.of(
+                Example.of(new Member("member1"), ExampleMatcher.matching().withIgnorePaths("age")),
+                Example.of(byTeam, ExampleMatcher.matching().withIgnorePaths("age")),
+                Example.of(new Member("mem", 2), ExampleMatcher.matchingAny()
+                                                               .withMatcher("username", ExampleMatcher.GenericPropertyMatchers.startsWith().ignoreCase())));
+        for (Example<Member> example : examples) {
+            assertThat(memberRepository.findAllByExampleCached(example, sort)).extracting(Member::getId)
+                    .containsExactlyElementsOf(memberRepository.findAll(example, sort).stream().map(Member::getId).collect(Collectors.toList()));
+        }
+
+        Statistics statistics = em.unwrap(Session.class).getSessionFactory().getStatistics();
+        long planMisses = statistics.getQueryPlanCacheMissCount();
+        List<Member> result = memberRepository.findAllByExampleCached(
+                Example.of(new Member("Member2"), ExampleMatcher.matching().withIgnorePaths("age")), sort); // 값만 다르고 모양은 같다
+        assertThat(result).extracting(Member::getUsername).containsExactly("Member2");
+        assertEquals(planMisses, statistics.getQueryPlanCacheMissCount());
+    }
+
     @DisplayName("Projections_interface")
     @Test
     void projection_interface_test() {
@@ -838,6 +948,36 @@ public class MemberRepositoryTest {
         }
     }
 
+    @DisplayName("Projections_class : 중첩 프로젝션/Open Projection을 클래스로 받으면 필요한 컬럼만 select 한다")
+    @Rollback
+    @Test
+    void projection_class_selects_only_needed_columns() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("projection1", 0, teamA));
+        em.persist(new Member("projection1", 2));
+        em.flush();
+        em.clear();
+
+        List<NestedClosedProjections> proxies = memberRepository.findGenericProjectionsByUsername("projection1", NestedClosedProjections.class);
+        List<UsernameOnly> openProxies = memberRepository.findProjectionsByUsername("projection1");
+
+        List<NestedClosedProjectionsDto> nested = new ArrayList<>();
+        List<UsernameAgeDto> usernameAges = new ArrayList<>();
+        QueryCounter counter = QueryCounterHolder.count(() -> {
+            nested.addAll(memberRepository.findNestedProjectionsByUsername("projection1"));
+            usernameAges.addAll(memberRepository.findUsernameAgeByUsername("projection1"));
+        });
+
+        assertThat(nested).extracting(NestedClosedProjectionsDto::getUsername)
+                          .containsExactlyInAnyOrderElementsOf(proxies.stream().map(NestedClosedProjections::getUsername).collect(Collectors.toList()));
+        assertThat(nested).extracting(dto -> dto.getTeam() == null ? null : dto.getTeam().getName())
+                          .containsExactlyInAnyOrder("teamA", null);
+        assertThat(usernameAges).extracting(UsernameAgeDto::getUsername)
+                                .containsExactlyInAnyOrderElementsOf(openProxies.stream().map(UsernameOnly::getUsername).collect(Collectors.toList()));
+        assertThat(counter.getSelectCounts().keySet()).allSatisfy(sql -> assertThat(sql).doesNotContain("created_date"));
+    }
+
     @DisplayName("네이티브쿼리 테스트")
     @Test
     void native_query_test() {
@@ -883,4 +1023,304 @@ public class MemberRepositoryTest {
         }
     }
 
+    @DisplayName("키셋(커서) 페이징")
+    @Nested
+    class KeysetPaging {
+
+        @DisplayName("커서를 따라가면 offset 페이징과 같은 순서로 모든 회원을 한번씩 조회한다")
+        @Rollback
+        @Test
+        void keyset_walks_same_order_as_offset() {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 7; i++) {
+                memberRepository.save(new Member("keyset" + (i % 3), i, teamA)); // 같은 username이 여러개(tie-breaker 확인용)
+            }
+            em.flush();
+            em.clear();
+
+            List<Long> expected = memberRepository.findAll(Sort.by(Direction.DESC, "username").and(Sort.by(Direction.DESC, "id")))
+                                                  .stream().map(Member::getId).collect(Collectors.toList());
+
+            List<Long> actual = new ArrayList<>();
+            MemberCursor cursor = MemberCursor.first(MemberSortKey.USERNAME, Direction.DESC);
+            while (true) {
+                KeysetWindow<MemberDto> window = memberRepository.findMemberWindow(cursor, 3);
+                window.getContent().forEach(dto -> actual.add(dto.getId()));
+                if (!window.isHasNext()) {
+                    break;
+                }
+                cursor = MemberCursor.decode(window.getNextCursor());
+            }
+
+            assertEquals(expected, actual);
+        }
+
+        @DisplayName("username이 null인 회원도 건너뛰지 않는다 (오름차순이면 맨 뒤, 내림차순이면 맨 앞)")
+        @Rollback
+        @Test
+        void keyset_keeps_null_usernames() {
+            for (int i = 0; i < 7; i++) {
+                memberRepository.save(new Member(i % 2 == 0 ? null : "keysetNull" + (i % 3), i));
+            }
+            em.flush();
+            em.clear();
+
+            Comparator<Member> nullsLast = Comparator.comparing(Member::getUsername, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                                                     .thenComparing(Member::getId);
+            List<Long> asc = memberRepository.findAll().stream().sorted(nullsLast).map(Member::getId).collect(Collectors.toList());
+            List<Long> desc = new ArrayList<>(asc);
+            Collections.reverse(desc);
+
+            assertEquals(asc, walk(MemberCursor.first(MemberSortKey.USERNAME, Direction.ASC)));
+            assertEquals(desc, walk(MemberCursor.first(MemberSortKey.USERNAME, Direction.DESC)));
+        }
+
+        private List<Long> walk(MemberCursor cursor) {
+            List<Long> ids = new ArrayList<>();
+            while (true) {
+                KeysetWindow<MemberDto> window = memberRepository.findMemberWindow(cursor, 2);
+                window.getContent().forEach(dto -> ids.add(dto.getId()));
+                if (!window.isHasNext()) {
+                    return ids;
+                }
+                cursor = MemberCursor.decode(window.getNextCursor());
+            }
+        }
+
+        /**
+         * @implNote : offset 페이징 vs 키셋 페이징 간단 벤치마크 (size = 10, 1/100/10,000 페이지)
+         * offset은 페이지가 깊어질수록 앞의 row를 다 읽고 버리고 + count 쿼리까지 나가지만,
+         * 키셋은 id 인덱스로 바로 찾아가기 때문에 페이지 깊이와 상관 없이 시간이 거의 일정하다.
+         */
+        @DisplayName("offset vs keyset 벤치마크")
+        @Rollback
+        @Test
+        void offset_vs_keyset_benchmark() {
+            int size = 10;
+            em.createNativeQuery("insert into member (member_id, username, age, version) "
+                                         + "select x + 100000000, 'bench' || x, mod(x, 100), 0 from system_range(1, 100010)")
+              .executeUpdate();
+
+            for (int page : new int[] { 1, 100, 10_000 }) {
+                int offset = (page - 1) * size;
+                MemberCursor cursor = MemberCursor.first(MemberSortKey.ID, Direction.ASC);
+                if (offset > 0) {
+                    Number lastId = (Number) em.createNativeQuery("select member_id from member order by member_id limit 1 offset ?")
+                                               .setParameter(1, offset - 1)
+                                               .getSingleResult();
+                    cursor = MemberCursor.after(MemberSortKey.ID, Direction.ASC, lastId.longValue(), lastId.longValue());
+                }
+                PageRequest pageRequest = PageRequest.of(page - 1, size, Sort.by("id"));
+                MemberCursor keysetCursor = cursor;
+
+                List<Long> offsetIds = memberRepository.findAll(pageRequest).map(MemberDto::new)
+                                                       .map(MemberDto::getId).getContent();
+                List<Long> keysetIds = memberRepository.findMemberWindow(keysetCursor, size).getContent()
+                                                       .stream().map(MemberDto::getId).collect(Collectors.toList());
+                assertEquals(offsetIds, keysetIds);
+
+                long offsetNanos = medianNanos(() -> memberRepository.findAll(pageRequest).map(MemberDto::new));
+                long keysetNanos = medianNanos(() -> memberRepository.findMemberWindow(keysetCursor, size));
+                System.out.printf("page %,6d : offset = %,10d ns, keyset = %,10d ns%n", page, offsetNanos, keysetNanos);
+            }
+        }
+
+        private long medianNanos(Runnable query) {
+            long[] samples = new long[7];
+            for (int i = 0; i < samples.length; i++) {
+                long start = System.nanoTime();
+                query.run();
+                samples[i] = System.nanoTime() - start;
+                em.clear();
+            }
+            Arrays.sort(samples);
+            return samples[samples.length / 2];
+        }
+    }
+
+    @DisplayName("대량 저장은 배치 insert + flush/clear로 영속성 컨텍스트를 비우면서 저장한다")
+    @Rollback
+    @Test
+    void saveAllBatched() {
+        long before = memberRepository.count();
+        int total = 20_000;
+        Iterable<Member> members = () -> IntStream.range(0, total)
+                                                  .mapToObj(i -> new Member("batch" + i, i % 100))
+                                                  .iterator(); // 미리 리스트로 만들지 않음 (메모리 일정)
+
+        long start = System.nanoTime();
+        int saved = memberRepository.saveAllBatched(members, 1000);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("saveAllBatched : %,d rows, %,.0f rows/s%n", saved, saved / (elapsed / 1_000_000_000.0));
+
+        assertEquals(total, saved);
+        assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount()); // 영속성 컨텍스트에 남은 엔티티 없음
+        assertEquals(before + total, memberRepository.count());
+
+        // 리포지토리 프록시가 IllegalArgumentException을 InvalidDataAccessApiUsageException으로 바꿔서 던진다
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> memberRepository.saveAllBatched(members, 0));
+        assertEquals(null, em.unwrap(Session.class).getJdbcBatchSize()); // 배치 크기를 바꾸기 전에 거절
+    }
+
+    @DisplayName("Stream 조회는 DTO로 한 row씩 읽어서 영속성 컨텍스트에 엔티티를 쌓지 않는다")
+    @Rollback
+    @Test
+    void streamAllMemberDto() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        memberRepository.save(new Member("stream1", 10, teamA));
+        memberRepository.save(new Member("stream2", 20));
+        em.flush();
+        em.clear();
+
+        long count;
+        try (Stream<MemberDto> stream = memberRepository.streamAllMemberDto()) {
+            count = stream.count();
+        }
+
+        assertEquals(memberRepository.count(), count);
+        assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @DisplayName("totalCount 방식 (exact, cached, estimated)")
+    @Nested
+    class PageCount {
+
+        @DisplayName("count=cached 이면 TTL 동안은 count 쿼리 없이 이전 totalCount를 재사용한다")
+        @Rollback
+        @Test
+        void cached_total_is_reused_within_ttl() {
+            int age = 88_888;
+            for (int i = 0; i < 7; i++) {
+                memberRepository.save(new Member("pageCount" + i, age));
+            }
+            PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("id"));
+
+            Page<Member> first = memberRepository.findPageByAge(age, pageRequest, PageCountMode.CACHED);
+            memberRepository.save(new Member("pageCount7", age));
+            memberRepository.save(new Member("pageCount8", age));
+            em.flush();
+
+            QueryCounter counter = QueryCounterHolder.count(() -> {
+                Page<Member> cached = memberRepository.findPageByAge(age, pageRequest, PageCountMode.CACHED);
+                assertEquals(7, cached.getTotalElements()); // 아직 TTL 안이라 이전 값
+                assertEquals(3, cached.getContent().size());
+            });
+            Page<Member> exact = memberRepository.findPageByAge(age, pageRequest, PageCountMode.EXACT);
+
+            assertEquals(7, first.getTotalElements());
+            assertEquals(3, first.getTotalPages());
+            assertEquals(1, counter.getStatementCount()); // content 조회 1건, count 는 안 나감
+            assertEquals(9, exact.getTotalElements());
+        }
+
+        @DisplayName("페이지가 꽉 차지 않으면 어떤 모드든 count 쿼리를 실행하지 않는다")
+        @Rollback
+        @Test
+        void partial_page_skips_count() {
+            int age = 77_777;
+            for (int i = 0; i < 4; i++) {
+                memberRepository.save(new Member("partial" + i, age));
+            }
+            em.flush();
+
+            QueryCounter counter = QueryCounterHolder.count(() -> {
+                Page<Member> page = memberRepository.findPageByAge(age, PageRequest.of(0, 10), PageCountMode.EXACT);
+                assertEquals(4, page.getTotalElements());
+                assertThat(page.isLast()).isTrue();
+            });
+
+            assertEquals(1, counter.getStatementCount());
+        }
+
+        @DisplayName("count=estimated 는 count(*) 대신 테이블 통계로 totalCount를 채운다")
+        @Rollback
+        @Test
+        void estimated_total_uses_table_statistics() {
+            for (int i = 0; i < 12; i++) {
+                memberRepository.save(new Member("estimated" + i, i));
+            }
+            em.flush();
+
+            QueryCounter counter = QueryCounterHolder.count(() -> {
+                Page<Member> page = memberRepository.findAllMembers(PageRequest.of(0, 5, Sort.by("id")), PageCountMode.ESTIMATED);
+                assertEquals(5, page.getContent().size());
+                assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(5);
+            });
+
+            assertThat(counter.getSelectCounts().keySet()).noneMatch(sql -> sql.contains("count("));
+        }
+    }
+
+    @DisplayName("청크 벌크 업데이트는 바뀐 회원만 영속성 컨텍스트에서 내보내고 나머지는 그대로 둔다")
+    @Rollback
+    @Test
+    void bulkAgePlusChunked() {
+        int age = 300_000;
+        List<Member> targets = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            targets.add(memberRepository.save(new Member("chunk" + i, age + i)));
+        }
+        Member untouched = memberRepository.save(new Member("untouched", 10));
+        untouched.changeUsername("changed"); // flush 전 변경도 잃지 않아야 한다
+
+        List<BulkUpdateResult> progress = new ArrayList<>();
+        BulkUpdateResult result = memberRepository.bulkAgePlusChunked(age, 10, progress::add);
+
+        assertEquals(25, result.getAffectedRows());
+        assertEquals(3, result.getChunks());
+        assertThat(progress).extracting(BulkUpdateResult::getAffectedRows).containsExactly(10L, 20L, 25L);
+        assertThat(targets).noneMatch(em::contains);
+        assertThat(em.contains(untouched)).isTrue();
+        assertEquals(age + 1, memberRepository.findById(targets.get(0).getId()).get().getAge());
+        assertEquals("changed", em.createQuery("select m.username from Member m where m.id = :id", String.class)
+                                  .setParameter("id", untouched.getId()).getSingleResult());
+    }
+
+    @DisplayName("리포지토리 메서드마다 실행 시간, row 수, SQL 수, 로딩된 엔티티 수가 Micrometer에 남는다")
+    @Rollback
+    @Test
+    void repository_metrics() {
+        Team team = teamRepository.save(new Team("metricsTeam"));
+        memberRepository.save(new Member("metrics", 10, team));
+        memberRepository.save(new Member("metrics", 20, team));
+        em.flush();
+        em.clear();
+
+        long before = Optional.ofNullable(meterRegistry.find("datajpa.repository.invocations")
+                                                       .tags("method", "MemberRepository.findEntityGraphByUsername", "outcome", "success").timer())
+                              .map(Timer::count).orElse(0L);
+        memberRepository.findEntityGraphByUsername("metrics");
+
+        Timer timer = meterRegistry.get("datajpa.repository.invocations")
+                                   .tags("method", "MemberRepository.findEntityGraphByUsername", "outcome", "success").timer();
+        DistributionSummary rows = meterRegistry.get("datajpa.repository.rows").tag("method", "MemberRepository.findEntityGraphByUsername").summary();
+        DistributionSummary statements = meterRegistry.get("datajpa.repository.statements").tag("method", "MemberRepository.findEntityGraphByUsername").summary();
+        DistributionSummary entities = meterRegistry.get("datajpa.repository.entities").tag("method", "MemberRepository.findEntityGraphByUsername").summary();
+        assertEquals(before + 1, timer.count());
+        assertEquals(2, rows.max());
+        assertEquals(1, statements.max()); // 팀까지 fetch join 한번
+        assertEquals(3, entities.max());   // 회원 2 + 팀 1
+        assertThat(meterRegistry.find("datajpa.repository.invocations").tag("method", "TeamRepository.save").timer()).isNotNull();
+    }
+
+    @DisplayName("Stream처럼 반환 시점에 다 읽지 않은 결과는 row 수를 남기지 않는다")
+    @Rollback
+    @Test
+    void repository_metrics_skip_rows_for_stream() {
+        memberRepository.save(new Member("metricsStream", 10));
+        em.flush();
+        long before = Optional.ofNullable(meterRegistry.find("datajpa.repository.invocations")
+                                                       .tags("method", "MemberRepository.streamAllMemberDto", "outcome", "success").timer())
+                              .map(Timer::count).orElse(0L);
+
+        try (Stream<MemberDto> stream = memberRepository.streamAllMemberDto()) {
+            assertThat(stream.count()).isPositive();
+        }
+
+        assertEquals(before + 1, meterRegistry.get("datajpa.repository.invocations")
+                                              .tags("method", "MemberRepository.streamAllMemberDto", "outcome", "success").timer().count());
+        assertEquals(0, meterRegistry.get("datajpa.repository.rows").tag("method", "MemberRepository.streamAllMemberDto").summary().count());
+    }
 }
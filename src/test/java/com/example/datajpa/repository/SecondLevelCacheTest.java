@@ -0,0 +1,149 @@
+package com.example.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.entity.Team;
+
+/**
+ * 2차 캐시는 트랜잭션(영속성 컨텍스트)을 넘어서 공유되기 때문에, 테스트도 트랜잭션을 커밋해가면서 확인해야 한다.
+ * 그래서 이 클래스는 @Transactional을 붙이지 않고 TransactionTemplate으로 트랜잭션을 직접 나눈다.
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+    private static final int HOT_IDS = 10;
+    private static final int REQUESTS = 1000;
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory emf;
+
+    Statistics statistics;
+    Team team;
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate.executeWithoutResult(status -> {
+            team = teamRepository.save(new Team("cacheTeam"));
+            for (int i = 0; i < HOT_IDS; i++) {
+                memberIds.add(memberRepository.save(new Member("cache" + i, 100_000 + i, team)).getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            memberIds.forEach(memberRepository::deleteById);
+            teamRepository.deleteById(team.getId());
+        });
+    }
+
+    @DisplayName("같은 id를 반복 조회하면 2차 캐시에서 꺼내기 때문에 DB 왕복이 거의 없다")
+    @Test
+    void hot_ids_hit_second_level_cache() {
+        long withoutCache = statementsFor(() -> {
+            emf.getCache().evictAll();
+            readHotIds();
+        });
+        long withCache = statementsFor(() -> {
+            for (int i = 0; i < REQUESTS / HOT_IDS; i++) {
+                readHotIds();
+            }
+        });
+
+        System.out.printf("DB 왕복 : 캐시 비움 %d번 조회 -> %d statements, 캐시 사용 %d번 조회 -> %d statements%n",
+                          HOT_IDS, withoutCache, REQUESTS, withCache);
+        assertThat(withoutCache).isGreaterThan(0);
+        assertEquals(0, withCache); // 회원도, 회원의 팀(지연로딩 프록시)도 전부 캐시에서 꺼낸다
+    }
+
+    @DisplayName("벌크 업데이트를 하면 캐시가 무효화되어 바뀐 값이 조회된다")
+    @Test
+    void bulk_update_invalidates_cache() {
+        Long id = memberIds.get(0);
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(id)); // 캐시에 올림
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findByUsername("cache0")); // 쿼리 캐시에 올림
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkUpdatePlus(100_000));
+
+        int age = transactionTemplate.execute(status -> memberRepository.findById(id).get().getAge());
+        int queriedAge = transactionTemplate.execute(status -> memberRepository.findByUsername("cache0").get(0).getAge());
+        assertEquals(100_001, age);
+        assertEquals(100_001, queriedAge);
+    }
+
+    @DisplayName("청크 벌크 업데이트는 바뀐 회원만 캐시에서 내보낸다")
+    @Test
+    void chunked_bulk_update_evicts_only_affected() {
+        readHotIds(); // 전부 캐시에 올림
+        Long changed = memberIds.get(HOT_IDS - 1);
+
+        memberRepository.bulkAgePlusChunked(100_000 + HOT_IDS - 1, 100, result -> { });
+
+        assertThat(emf.getCache().contains(Member.class, changed)).isFalse();
+        assertThat(memberIds.subList(0, HOT_IDS - 1)).allMatch(id -> emf.getCache().contains(Member.class, id));
+        int age = transactionTemplate.execute(status -> memberRepository.findById(changed).get().getAge());
+        assertEquals(100_000 + HOT_IDS, age);
+    }
+
+    @DisplayName("username 인덱스 + 2차 캐시로 username 조회가 DB를 타지 않고, 커밋된 변경은 인덱스에 반영된다")
+    @Test
+    void username_index_skips_database() {
+        memberRepository.findByUsernameCached("cache0"); // 인덱스, 캐시에 올림
+        long hot = statementsFor(() -> {
+            for (int i = 0; i < 100; i++) {
+                transactionTemplate.executeWithoutResult(status -> memberRepository.findByUsernameCached("cache0"));
+            }
+        });
+        assertEquals(0, hot);
+
+        Long added = transactionTemplate.execute(status -> memberRepository.save(new Member("cache0", 1, team)).getId());
+        memberIds.add(added);
+        assertThat(memberRepository.findByUsernameCached("cache0")).extracting(Member::getId).containsExactly(memberIds.get(0), added);
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(added).get().changeUsername("renamed"));
+        assertThat(memberRepository.findByUsernameCached("cache0")).extracting(Member::getId).containsExactly(memberIds.get(0));
+        assertThat(memberRepository.findByUsernameCached("renamed")).extracting(Member::getId).containsExactly(added);
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteById(added));
+        memberIds.remove(added);
+        assertThat(memberRepository.findByUsernameCached("renamed")).isEmpty();
+    }
+
+    private void readHotIds() {
+        for (Long id : memberIds) {
+            // 요청 하나 = 트랜잭션(영속성 컨텍스트) 하나. 1차 캐시는 매번 비어있다.
+            transactionTemplate.executeWithoutResult(status -> memberRepository.findById(id).get().getTeam().getName());
+        }
+    }
+
+    private long statementsFor(Runnable runnable) {
+        long before = statistics.getPrepareStatementCount();
+        runnable.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.config.TeamSummaryProperties;
+import com.example.datajpa.dto.TeamStatsDto;
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.entity.Team;
+
+/**
+ * team_summary는 트랜잭션이 커밋될 때 반영되기 때문에 @Transactional 없이 TransactionTemplate으로 커밋해가면서 확인한다.
+ * bulkUpdatePlus가 다른 테스트 데이터를 건드리지 않도록 나이를 크게 잡는다.
+ */
+@SpringBootTest
+class TeamStatsRepositoryTest {
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+    @Autowired
+    TeamSummaryListener teamSummaryListener;
+    @Autowired
+    TeamSummaryProperties properties;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Team teamA;
+    Team teamB;
+    Team emptyTeam;
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            teamA = teamRepository.save(new Team("statsTeamA"));
+            teamB = teamRepository.save(new Team("statsTeamB"));
+            emptyTeam = teamRepository.save(new Team("statsEmpty"));
+            for (int age : new int[] { 10_010, 10_020, 10_030 }) {
+                memberIds.add(memberRepository.save(new Member("stats" + age, age, teamA)).getId());
+            }
+            memberIds.add(memberRepository.save(new Member("stats10040", 10_040, teamB)).getId());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        properties.setEnabled(false);
+        transactionTemplate.executeWithoutResult(status -> {
+            memberIds.forEach(id -> memberRepository.findById(id).ifPresent(memberRepository::delete));
+            List.of(teamA, teamB, emptyTeam).forEach(team -> teamRepository.deleteById(team.getId()));
+        });
+    }
+
+    @DisplayName("GROUP BY로 팀별 회원 수, 나이 최소/최대/평균을 구하고 회원 없는 팀도 나온다")
+    @Test
+    void group_by_stats() {
+        Map<Long, TeamStatsDto> stats = mine(teamStatsRepository.findTeamStats());
+
+        TeamStatsDto a = stats.get(teamA.getId());
+        assertEquals("statsTeamA", a.getTeamName());
+        assertEquals(3, a.getMemberCount());
+        assertEquals(10_010, a.getMinAge());
+        assertEquals(10_030, a.getMaxAge());
+        assertEquals(10_020.0, a.getAvgAge(), 0.001);
+        assertEquals(1, stats.get(teamB.getId()).getMemberCount());
+        assertEquals(0, stats.get(emptyTeam.getId()).getMemberCount());
+        assertNull(stats.get(emptyTeam.getId()).getAvgAge());
+    }
+
+    @DisplayName("team_summary는 회원 저장/팀 이동/나이 변경/삭제/벌크 업데이트 후에도 GROUP BY 결과와 같고, 롤백된 변경은 반영되지 않는다")
+    @Test
+    void summary_follows_member_changes() {
+        properties.setEnabled(true);
+        teamSummaryListener.rebuild();
+        assertSameAsGroupBy();
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(memberIds.get(2)).get().changeTeam(teamB)); // 10030 A -> B
+        assertSameAsGroupBy();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            memberIds.add(memberRepository.save(new Member("stats10005", 10_005, teamA)).getId());
+            memberRepository.findById(memberIds.get(3)).get().addAge(100); // B의 최대 나이 변경
+        });
+        assertSameAsGroupBy();
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteById(memberIds.get(0)));
+        assertSameAsGroupBy();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.save(new Member("statsRollback", 1, teamA));
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+        assertSameAsGroupBy();
+
+        memberRepository.bulkUpdatePlus(10_025);
+        assertSameAsGroupBy();
+        memberJpaRepository.bulkAgePlus(10_025);
+        assertSameAsGroupBy();
+
+        TeamStatsDto b = mine(teamStatsRepository.findTeamStatsFromSummary()).get(teamB.getId());
+        assertEquals(2, b.getMemberCount());
+        assertEquals(10_032, b.getMinAge());
+        assertEquals(10_142, b.getMaxAge());
+    }
+
+    @DisplayName("팀을 저장하면 team_summary 행이 먼저 생기고, 팀을 삭제하면 같이 지워진다. rebuild는 회원 없는 팀의 행도 만든다")
+    @Test
+    void summary_row_follows_team() {
+        properties.setEnabled(true);
+        teamSummaryListener.rebuild();
+        assertEquals(1, summaryRows(emptyTeam.getId()));
+
+        Team newTeam = transactionTemplate.execute(status -> teamRepository.save(new Team("statsNew")));
+        assertEquals(1, summaryRows(newTeam.getId()));
+
+        Long memberId = transactionTemplate.execute(status -> memberRepository.save(new Member("stats10050", 10_050, newTeam)).getId());
+        TeamStatsDto stats = mine(teamStatsRepository.findTeamStatsFromSummary(), newTeam).get(newTeam.getId());
+        assertEquals(1, stats.getMemberCount());
+        assertEquals(10_050, stats.getMinAge());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.deleteById(memberId);
+            teamRepository.deleteById(newTeam.getId());
+        });
+        assertEquals(0, summaryRows(newTeam.getId()));
+    }
+
+    private int summaryRows(Long teamId) {
+        return jdbcTemplate.queryForObject("select count(*) from team_summary where team_id = ?", Integer.class, teamId);
+    }
+
+    private void assertSameAsGroupBy() {
+        assertThat(mine(teamStatsRepository.findTeamStatsFromSummary())).isEqualTo(mine(teamStatsRepository.findTeamStats()));
+    }
+
+    private Map<Long, TeamStatsDto> mine(List<TeamStatsDto> stats, Team... others) {
+        List<Long> teamIds = new ArrayList<>(List.of(teamA.getId(), teamB.getId(), emptyTeam.getId()));
+        Arrays.stream(others).forEach(team -> teamIds.add(team.getId()));
+        return stats.stream()
+                    .filter(dto -> teamIds.contains(dto.getTeamId()))
+                    .collect(Collectors.toMap(TeamStatsDto::getTeamId, Function.identity()));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.datajpa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.datajpa.entity.Member;
+import com.example.datajpa.entity.Team;
+import com.example.datajpa.repository.MemberRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@Transactional
+class MemberServiceTest {
+
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @DisplayName("CSV export는 헤더 + 회원 수 만큼의 줄을 쓴다")
+    @Test
+    void export_csv() {
+        Team team = new Team("team,A");
+        em.persist(team);
+        em.persist(new Member("export1", 10, team));
+        em.flush();
+        em.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = memberService.exportMembers(out, MemberExportFormat.CSV);
+
+        List<String> lines = List.of(out.toString(StandardCharsets.UTF_8).split("\n"));
+        assertEquals(memberRepository.count(), count);
+        assertEquals(count + 1, lines.size());
+        assertEquals("id,username,teamName", lines.get(0));
+        assertThat(lines).anyMatch(line -> line.endsWith(",export1,\"team,A\""));
+    }
+
+    @DisplayName("NDJSON export는 한 줄에 회원 한명씩 JSON으로 쓴다")
+    @Test
+    void export_ndjson() {
+        em.persist(new Member("export2", 20));
+        em.flush();
+        em.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = memberService.exportMembers(out, MemberExportFormat.NDJSON);
+
+        List<String> lines = List.of(out.toString(StandardCharsets.UTF_8).split("\n"));
+        assertEquals(count, lines.size());
+        assertThat(lines).anyMatch(line -> line.contains("\"username\":\"export2\""));
+    }
+
+    /**
+     * 여러 스레드가 같은 회원을 동시에 고치는 상황. 각 스레드가 자기 트랜잭션을 커밋해야 하니 테스트 트랜잭션 없이 실행하고 끝나면 지운다.
+     */
+    @Nested
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class Contention {
+        static final int THREADS = 4;
+        static final int UPDATES_PER_THREAD = 10;
+
+        @Autowired
+        TransactionTemplate transactionTemplate;
+        @Autowired
+        MeterRegistry meterRegistry;
+
+        Long memberId;
+
+        @BeforeEach
+        void setUp() {
+            memberId = transactionTemplate.execute(status -> memberRepository.save(new Member("contention", 0)).getId());
+        }
+
+        @AfterEach
+        void tearDown() {
+            transactionTemplate.executeWithoutResult(status -> memberRepository.deleteById(memberId));
+        }
+
+        @DisplayName("낙관적 락 : 동시에 고쳐도 충돌난 쪽이 재시도해서 변경이 하나도 사라지지 않는다")
+        @Test
+        void optimistic_retry_loses_no_update() throws Exception {
+            double retriedBefore = retried();
+
+            runConcurrently(() -> memberService.addAgeOptimistic(memberId, 1));
+
+            Member member = transactionTemplate.execute(status -> memberRepository.findById(memberId).get());
+            assertEquals(THREADS * UPDATES_PER_THREAD, member.getAge());
+            assertEquals(THREADS * UPDATES_PER_THREAD, member.getVersion().intValue()); // 커밋된 수정 한번에 version +1
+            System.out.printf("낙관적 락 재시도 : %.0f번%n", retried() - retriedBefore);
+        }
+
+        @DisplayName("비관적 락 : for update로 줄 세워서 변경이 하나도 사라지지 않는다")
+        @Test
+        void pessimistic_lock_loses_no_update() throws Exception {
+            runConcurrently(() -> memberService.addAgePessimistic(memberId, 1));
+
+            int age = transactionTemplate.execute(status -> memberRepository.findById(memberId).get().getAge());
+            assertEquals(THREADS * UPDATES_PER_THREAD, age);
+        }
+
+        @DisplayName("이미 트랜잭션 안이면 재시도하지 않고 충돌을 그대로 던진다")
+        @Test
+        void no_retry_inside_outer_transaction() {
+            assertThrows(OptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+                memberRepository.findById(memberId).get(); // 바깥 트랜잭션이 예전 version을 들고 있는 상태에서
+                new TransactionTemplate(transactionTemplate.getTransactionManager(), requiresNew())
+                        .executeWithoutResult(inner -> memberRepository.findById(memberId).get().addAge(1));
+                memberService.addAgeOptimistic(memberId, 1);
+            }));
+        }
+
+        private void runConcurrently(Runnable update) throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        for (int j = 0; j < UPDATES_PER_THREAD; j++) {
+                            update.run();
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private double retried() {
+            return meterRegistry.find("datajpa.optimistic.retries").tag("outcome", "retried").counters().stream()
+                                .mapToDouble(Counter::count).sum();
+        }
+
+        private DefaultTransactionDefinition requiresNew() {
+            return new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+    }
+}